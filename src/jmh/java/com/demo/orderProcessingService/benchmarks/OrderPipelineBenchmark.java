@@ -0,0 +1,104 @@
+package com.demo.orderProcessingService.benchmarks;
+
+import com.demo.orderProcessingService.OrderProcessingServiceApplication;
+import com.demo.orderProcessingService.commands.CreateOrderCommand;
+import com.demo.orderProcessingService.commands.OrderCommandHandler;
+import com.demo.orderProcessingService.outbox.OutboxService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Write and processing paths against the embedded H2 database, with the background worker off so
+ * each benchmark drives claiming and processing itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderPipelineBenchmark {
+
+  private ConfigurableApplicationContext context;
+  private OrderCommandHandler handler;
+  private OutboxService outboxService;
+  private JdbcTemplate jdbc;
+
+  @Setup(Level.Trial)
+  public void start() {
+    context =
+        new SpringApplicationBuilder(OrderProcessingServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                "outbox.worker.enabled=false",
+                "outbox.retention.enabled=false",
+                "outbox.backfill.enabled=false",
+                "logging.level.root=WARN")
+            .run();
+    handler = context.getBean(OrderCommandHandler.class);
+    outboxService = context.getBean(OutboxService.class);
+    jdbc = context.getBean(JdbcTemplate.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  /** One freshly created, unclaimed event per invocation. */
+  @State(Scope.Thread)
+  public static class PendingEvent {
+    Long eventId;
+
+    @Setup(Level.Invocation)
+    public void enqueue(OrderPipelineBenchmark pipeline) {
+      String orderId = pipeline.handler.handle(command(1));
+      eventId =
+          pipeline.jdbc.queryForObject(
+              "select id from outbox_events where aggregate_id = ?", Long.class, orderId);
+    }
+  }
+
+  /** {@code batchSize} freshly created events per invocation, the only PENDING ones. */
+  @State(Scope.Thread)
+  public static class PendingBatch {
+    @Param({"10", "100"})
+    public int batchSize;
+
+    @Setup(Level.Invocation)
+    public void enqueue(OrderPipelineBenchmark pipeline) {
+      List<CreateOrderCommand> commands = new ArrayList<>(batchSize);
+      for (int i = 0; i < batchSize; i++) {
+        commands.add(command(i));
+      }
+      pipeline.handler.handleBatch(commands);
+    }
+  }
+
+  @Benchmark
+  public String handle() {
+    return handler.handle(command(7));
+  }
+
+  @Benchmark
+  public void claimAndProcessEvent(PendingEvent pending) {
+    if (outboxService.tryClaimEvent(pending.eventId)) outboxService.processEvent(pending.eventId);
+  }
+
+  @Benchmark
+  public void claimAndProcessBatch(PendingBatch pending) {
+    outboxService.processBatch(outboxService.claimBatch(pending.batchSize));
+  }
+
+  private static CreateOrderCommand command(int i) {
+    return new CreateOrderCommand(i % 2 == 0 ? "tenantA" : "tenantB", 50 + i * 10, i);
+  }
+}
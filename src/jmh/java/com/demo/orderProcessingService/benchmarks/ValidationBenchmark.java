@@ -0,0 +1,64 @@
+package com.demo.orderProcessingService.benchmarks;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.outbox.OutboxPayloads;
+import com.demo.orderProcessingService.validation.TenantAValidator;
+import com.demo.orderProcessingService.validation.TenantBValidator;
+import com.demo.orderProcessingService.validation.TenantOrderValidator;
+import com.demo.orderProcessingService.validation.ValidatorRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+
+/** In-memory hot paths of the worker: validator lookup and validation, payload parsing. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+  @Param({"tenantA", "tenantB", "unknown"})
+  public String tenantId;
+
+  private ValidatorRegistry registry;
+  private OrderEntity order;
+  private List<OrderEntity> batch;
+  private String payload;
+
+  @Setup
+  public void setUp() {
+    Map<String, TenantOrderValidator> beans =
+        Map.of("tenantA", new TenantAValidator(), "tenantB", new TenantBValidator());
+    registry =
+        new ValidatorRegistry(
+            beans, new DefaultResourceLoader(), "classpath:tenant-rules.properties");
+    order = OrderEntity.builder().id("o-1").tenantId(tenantId).amount(150).quantity(20).build();
+    batch = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      batch.add(
+          OrderEntity.builder().id("o-" + i).tenantId(tenantId).amount(i * 3).quantity(i).build());
+    }
+    payload = "{\"orderId\":\"3f2c5a8e-2d7b-4f0e-9c1a-6b8d2e4f7a90\"}";
+  }
+
+  @Benchmark
+  public boolean getAndValidate() {
+    return registry.get(tenantId).validate(order);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(100)
+  public boolean[] validateBatch() {
+    return registry.validateBatch(tenantId, batch);
+  }
+
+  @Benchmark
+  public String extractOrderId() {
+    return OutboxPayloads.extractOrderId(payload);
+  }
+}
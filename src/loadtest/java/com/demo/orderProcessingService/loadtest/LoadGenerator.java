@@ -0,0 +1,287 @@
+package com.demo.orderProcessingService.loadtest;
+
+import com.demo.orderProcessingService.OrderProcessingServiceApplication;
+import com.demo.orderProcessingService.outbox.OutboxEvent;
+import com.demo.orderProcessingService.outbox.OutboxRepository;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Open-model load test: boots the service on an in-memory H2 database and sends {@code POST
+ * /api/v1/orders} at a fixed Poisson arrival rate spread over the given tenants, independent of
+ * how fast the service answers. Each accepted order is then followed with the {@code waitFor}
+ * long-poll until it is PROCESSED or FAILED.
+ *
+ * <p>Accept latency is measured from the request's scheduled send time (so a stalled service is
+ * not hidden by a stalled client) and create-to-terminal latency from the 202 response. Every
+ * {@code --report-interval} seconds it prints throughput, interval percentiles and the outbox
+ * backlog; at the end, whole-run p50/p99/p99.9.
+ *
+ * <pre>
+ * mvn -Ploadtest -DskipTests verify -Dloadtest.args="--rate=500 --duration=60"
+ * </pre>
+ *
+ * Options: {@code --rate} (orders/s, default 200), {@code --duration} (s, 30), {@code --tenants}
+ * (comma separated, default tenantA,tenantB), {@code --report-interval} (s, 5), {@code
+ * --max-in-flight} (default 5000; arrivals beyond it are counted as dropped). Any other {@code
+ * --key=value} is passed to the service as a Spring property, e.g. {@code
+ * --outbox.worker.batch-size=100}.
+ */
+public final class LoadGenerator {
+
+  private final HttpClient http;
+  private final URI ordersUri;
+  private final List<String> tenants;
+  private final int maxInFlight;
+
+  private final Recorder acceptLatency = new Recorder(3);
+  private final Recorder terminalLatency = new Recorder(3);
+  private final Histogram acceptTotal = new Histogram(3);
+  private final Histogram terminalTotal = new Histogram(3);
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder accepted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private LoadGenerator(HttpClient http, URI ordersUri, List<String> tenants, int maxInFlight) {
+    this.http = http;
+    this.ordersUri = ordersUri;
+    this.tenants = tenants;
+    this.maxInFlight = maxInFlight;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    List<String> serviceArgs = new ArrayList<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("expected --key=value, got " + arg);
+      }
+      String key = arg.substring(2, arg.indexOf('='));
+      String value = arg.substring(arg.indexOf('=') + 1);
+      switch (key) {
+        case "rate", "duration", "tenants", "report-interval", "max-in-flight" ->
+            options.put(key, value);
+        default -> serviceArgs.add(arg);
+      }
+    }
+    double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+    long durationSeconds = Long.parseLong(options.getOrDefault("duration", "30"));
+    List<String> tenants = List.of(options.getOrDefault("tenants", "tenantA,tenantB").split(","));
+    long reportSeconds = Long.parseLong(options.getOrDefault("report-interval", "5"));
+    int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "5000"));
+
+    ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(OrderProcessingServiceApplication.class)
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID(),
+                "logging.level.root=WARN")
+            .run(serviceArgs.toArray(String[]::new));
+    ExecutorService clientPool = Executors.newFixedThreadPool(8);
+    try {
+      int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+      HttpClient http =
+          HttpClient.newBuilder()
+              .executor(clientPool)
+              .connectTimeout(Duration.ofSeconds(5))
+              .version(HttpClient.Version.HTTP_1_1)
+              .build();
+      URI ordersUri = URI.create("http://localhost:" + port + "/api/v1/orders");
+      LoadGenerator generator = new LoadGenerator(http, ordersUri, tenants, maxInFlight);
+      generator.run(rate, durationSeconds, reportSeconds, context.getBean(OutboxRepository.class));
+    } finally {
+      clientPool.shutdownNow();
+      context.close();
+    }
+  }
+
+  private void run(double rate, long durationSeconds, long reportSeconds, OutboxRepository outbox)
+      throws InterruptedException {
+    System.out.printf(
+        "rate=%.0f/s duration=%ds tenants=%s%n", rate, durationSeconds, String.join(",", tenants));
+    System.out.println(
+        "   t(s)  sent/s  acc/s  done/s  in-flight  dropped  errors"
+            + "  acc-p99(ms)  term-p50(ms)  term-p99(ms)  pending  in-progress");
+
+    long start = System.nanoTime();
+    long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+    long nextReport = start + TimeUnit.SECONDS.toNanos(reportSeconds);
+    long meanGapNanos = (long) (1e9 / rate);
+    long scheduled = start;
+    long[] last = new long[3];
+    Histogram acceptInterval = null;
+    Histogram terminalInterval = null;
+
+    while (scheduled < end) {
+      long now = System.nanoTime();
+      if (scheduled > now) LockSupport.parkNanos(scheduled - now);
+      send(scheduled);
+      // exponential gaps give Poisson arrivals
+      scheduled += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+
+      if (System.nanoTime() >= nextReport) {
+        acceptInterval = acceptLatency.getIntervalHistogram(acceptInterval);
+        terminalInterval = terminalLatency.getIntervalHistogram(terminalInterval);
+        report(start, reportSeconds, last, acceptInterval, terminalInterval, outbox);
+        nextReport += TimeUnit.SECONDS.toNanos(reportSeconds);
+      }
+    }
+
+    // let outstanding orders reach a final status
+    long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+    while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+      Thread.sleep(TimeUnit.SECONDS.toMillis(reportSeconds));
+      acceptInterval = acceptLatency.getIntervalHistogram(acceptInterval);
+      terminalInterval = terminalLatency.getIntervalHistogram(terminalInterval);
+      report(start, reportSeconds, last, acceptInterval, terminalInterval, outbox);
+    }
+    acceptTotal.add(acceptLatency.getIntervalHistogram());
+    terminalTotal.add(terminalLatency.getIntervalHistogram());
+
+    double elapsed = (System.nanoTime() - start) / 1e9;
+    System.out.printf(
+        "%nsent=%d accepted=%d completed=%d errors=%d dropped=%d unfinished=%d%n",
+        sent.sum(), accepted.sum(), completed.sum(), errors.sum(), dropped.sum(), inFlight.get());
+    System.out.printf(
+        "throughput: %.1f accepted/s, %.1f completed/s over %.1fs%n",
+        accepted.sum() / elapsed, completed.sum() / elapsed, elapsed);
+    summary("accept", acceptTotal);
+    summary("create-to-terminal", terminalTotal);
+  }
+
+  private void send(long scheduledNanos) {
+    sent.increment();
+    if (inFlight.incrementAndGet() > maxInFlight) {
+      inFlight.decrementAndGet();
+      dropped.increment();
+      return;
+    }
+    String tenant = tenants.get(ThreadLocalRandom.current().nextInt(tenants.size()));
+    String body =
+        "{\"tenantId\":\""
+            + tenant
+            + "\",\"amount\":"
+            + ThreadLocalRandom.current().nextInt(50, 500)
+            + ",\"quantity\":"
+            + ThreadLocalRandom.current().nextInt(1, 30)
+            + "}";
+    HttpRequest request =
+        HttpRequest.newBuilder(ordersUri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .whenComplete(
+            (response, error) -> {
+              long acceptedAt = System.nanoTime();
+              if (error != null || response.statusCode() / 100 != 2) {
+                fail();
+                return;
+              }
+              accepted.increment();
+              acceptLatency.recordValue(micros(acceptedAt - scheduledNanos));
+              awaitTerminal(orderId(response.body()), acceptedAt);
+            });
+  }
+
+  private void awaitTerminal(String orderId, long acceptedAt) {
+    URI waitUri = URI.create(ordersUri + "/" + orderId + "?waitFor=terminal&timeout=30");
+    HttpRequest request =
+        HttpRequest.newBuilder(waitUri)
+            .timeout(Duration.ofSeconds(45))
+            .build();
+    http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .whenComplete(
+            (response, error) -> {
+              if (error != null || response.statusCode() != 200) {
+                fail();
+              } else if (response.body().contains("\"status\":\"PENDING\"")) {
+                awaitTerminal(orderId, acceptedAt);
+              } else {
+                terminalLatency.recordValue(micros(System.nanoTime() - acceptedAt));
+                completed.increment();
+                inFlight.decrementAndGet();
+              }
+            });
+  }
+
+  private void fail() {
+    errors.increment();
+    inFlight.decrementAndGet();
+  }
+
+  private void report(
+      long start,
+      long intervalSeconds,
+      long[] last,
+      Histogram acceptInterval,
+      Histogram terminalInterval,
+      OutboxRepository outbox) {
+    acceptTotal.add(acceptInterval);
+    terminalTotal.add(terminalInterval);
+    long s = sent.sum();
+    long a = accepted.sum();
+    long c = completed.sum();
+    System.out.printf(
+        "%7.1f %7d %6d %7d %10d %8d %7d %12.1f %13.1f %13.1f %8d %12d%n",
+        (System.nanoTime() - start) / 1e9,
+        (s - last[0]) / intervalSeconds,
+        (a - last[1]) / intervalSeconds,
+        (c - last[2]) / intervalSeconds,
+        inFlight.get(),
+        dropped.sum(),
+        errors.sum(),
+        acceptInterval.getValueAtPercentile(99) / 1e3,
+        terminalInterval.getValueAtPercentile(50) / 1e3,
+        terminalInterval.getValueAtPercentile(99) / 1e3,
+        outbox.countByStatus(OutboxEvent.Status.PENDING),
+        outbox.countByStatus(OutboxEvent.Status.IN_PROGRESS));
+    last[0] = s;
+    last[1] = a;
+    last[2] = c;
+  }
+
+  private static void summary(String name, Histogram h) {
+    System.out.printf(
+        "%-19s p50=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms (n=%d)%n",
+        name,
+        h.getValueAtPercentile(50) / 1e3,
+        h.getValueAtPercentile(99) / 1e3,
+        h.getValueAtPercentile(99.9) / 1e3,
+        h.getMaxValue() / 1e3,
+        h.getTotalCount());
+  }
+
+  private static long micros(long nanos) {
+    return Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+
+  /** The command endpoint answers {@code {"orderId":"..."}}. */
+  private static String orderId(String body) {
+    int key = body.indexOf("\"orderId\"");
+    int open = body.indexOf('"', body.indexOf(':', key) + 1);
+    return body.substring(open + 1, body.indexOf('"', open + 1));
+  }
+}
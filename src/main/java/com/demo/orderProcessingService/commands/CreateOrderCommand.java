@@ -11,4 +11,15 @@ public class CreateOrderCommand {
   private String tenantId;
   private double amount;
   private int quantity;
+
+  /**
+   * Structural check only (tenant rules decide whether an order is acceptable). Returns a message
+   * describing the problem, or null if the command is well formed.
+   */
+  public String shapeError() {
+    if (tenantId == null || tenantId.isBlank()) return "tenantId is required";
+    if (!Double.isFinite(amount) || amount < 0) return "amount must be a non-negative number";
+    if (quantity < 0) return "quantity must not be negative";
+    return null;
+  }
 }
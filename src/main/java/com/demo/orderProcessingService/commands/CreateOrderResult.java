@@ -0,0 +1,4 @@
+package com.demo.orderProcessingService.commands;
+
+/** Outcome of a create: the order id, and whether it came from an earlier request with the key. */
+public record CreateOrderResult(String orderId, boolean replayed) {}
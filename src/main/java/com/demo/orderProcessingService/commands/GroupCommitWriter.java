@@ -0,0 +1,216 @@
+package com.demo.orderProcessingService.commands;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional group commit for single creates ({@code orders.group-commit.enabled}). Request threads
+ * queue their command and wait; committer threads take whatever arrived within {@code window-us} of
+ * the first queued command (at most {@code max-batch-size}) and write it through {@link
+ * OrderCommandHandler#handleGrouped} as one transaction, so thousands of concurrent POSTs share a
+ * handful of connections and commits. Each order still gets the {@link InlineValidation} decision a
+ * lone create would. If a batch fails, its commands are retried one by one so each caller gets its
+ * own id or its own error.
+ */
+@Component
+public class GroupCommitWriter implements SmartLifecycle {
+  private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+  private final OrderCommandHandler handler;
+  private final boolean enabled;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final int committers;
+  private final long timeoutMs;
+  private final BlockingQueue<Pending> queue;
+  private final List<Thread> threads = new ArrayList<>();
+  private final DistributionSummary batchSize;
+  private final Timer queueWait;
+  private final Timer commitTime;
+
+  private volatile boolean running;
+
+  public GroupCommitWriter(
+      OrderCommandHandler handler,
+      MeterRegistry meterRegistry,
+      @Value("${orders.group-commit.enabled:false}") boolean enabled,
+      @Value("${orders.group-commit.window-us:500}") long windowMicros,
+      @Value("${orders.group-commit.max-batch-size:200}") int maxBatchSize,
+      @Value("${orders.group-commit.committers:2}") int committers,
+      @Value("${orders.group-commit.queue-capacity:10000}") int queueCapacity,
+      @Value("${orders.group-commit.timeout-ms:10000}") long timeoutMs) {
+    if (maxBatchSize < 1 || committers < 1 || queueCapacity < 1) {
+      throw new IllegalArgumentException(
+          "orders.group-commit.max-batch-size, committers and queue-capacity must be positive");
+    }
+    this.handler = handler;
+    this.enabled = enabled;
+    this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+    this.maxBatchSize = maxBatchSize;
+    this.committers = committers;
+    this.timeoutMs = timeoutMs;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.batchSize =
+        DistributionSummary.builder("orders.commit.batch.size")
+            .description("Orders written per group commit")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.queueWait =
+        Timer.builder("orders.commit.queue.wait")
+            .description("Time a create waited for its group commit to start")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.commitTime = meterRegistry.timer("orders.commit.duration");
+  }
+
+  public boolean enabled() {
+    return enabled;
+  }
+
+  /**
+   * Queues the command for the next group commit and waits for its order id. Throws {@link
+   * RejectedExecutionException} when the queue is full or the writer is stopped, and {@link
+   * CommitTimeoutException} when no commit finished within {@code timeout-ms} (the order may still
+   * be written).
+   */
+  public String create(CreateOrderCommand cmd) {
+    Pending pending = new Pending(cmd, System.nanoTime());
+    if (!running || !queue.offer(pending)) {
+      throw new RejectedExecutionException("order intake queue is full");
+    }
+    try {
+      return pending.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) throw cause;
+      throw new IllegalStateException(ex.getCause());
+    } catch (TimeoutException ex) {
+      throw new CommitTimeoutException("order was not committed within " + timeoutMs + " ms");
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while waiting for the order commit");
+    }
+  }
+
+  /** Stops after the web server has drained requests, so no caller is left waiting. */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  @Override
+  public void start() {
+    if (!enabled) return;
+    running = true;
+    for (int i = 0; i < committers; i++) {
+      Thread t = new Thread(this::run, "order-committer-" + i);
+      t.setDaemon(true);
+      t.start();
+      threads.add(t);
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    for (Thread t : threads) {
+      try {
+        t.join(timeoutMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    threads.clear();
+    Pending left;
+    while ((left = queue.poll()) != null) {
+      left.result.completeExceptionally(new RejectedExecutionException("shutting down"));
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    List<Pending> batch = new ArrayList<>(maxBatchSize);
+    // keep draining after stop() until the queue is empty
+    while (running || !queue.isEmpty()) {
+      try {
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+        batch.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+          long wait = deadline - System.nanoTime();
+          Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) break;
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        batch.forEach(p -> p.result.completeExceptionally(e));
+        return;
+      }
+      commit(batch);
+      batch.clear();
+    }
+  }
+
+  private void commit(List<Pending> batch) {
+    long started = System.nanoTime();
+    for (Pending p : batch) queueWait.record(started - p.enqueuedNanos, TimeUnit.NANOSECONDS);
+    batchSize.record(batch.size());
+    List<CreateOrderCommand> cmds = new ArrayList<>(batch.size());
+    for (Pending p : batch) cmds.add(p.cmd);
+    try {
+      List<String> ids = handler.handleGrouped(cmds);
+      for (int i = 0; i < batch.size(); i++) batch.get(i).result.complete(ids.get(i));
+    } catch (RuntimeException ex) {
+      // the batch rolled back as a whole; one transaction per command isolates the bad one
+      log.warn("Group commit of {} orders failed: {}", batch.size(), ex.getMessage());
+      for (Pending p : batch) {
+        try {
+          p.result.complete(handler.handle(p.cmd));
+        } catch (RuntimeException single) {
+          p.result.completeExceptionally(single);
+        }
+      }
+    } finally {
+      commitTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /** The caller stopped waiting for its group commit; the order may still be written. */
+  public static final class CommitTimeoutException extends IllegalStateException {
+    CommitTimeoutException(String message) {
+      super(message);
+    }
+  }
+
+  private static final class Pending {
+    final CreateOrderCommand cmd;
+    final long enqueuedNanos;
+    final CompletableFuture<String> result = new CompletableFuture<>();
+
+    Pending(CreateOrderCommand cmd, long enqueuedNanos) {
+      this.cmd = cmd;
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+}
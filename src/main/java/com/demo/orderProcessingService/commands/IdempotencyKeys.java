@@ -0,0 +1,164 @@
+package com.demo.orderProcessingService.commands;
+
+import com.demo.orderProcessingService.domain.IdempotencyKey;
+import com.demo.orderProcessingService.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Which order each tenant's {@code Idempotency-Key} created, kept for {@code
+ * orders.idempotency.ttl}. The {@code idempotency_keys} table is the source of truth; keys this
+ * node created or looked up recently are also held in a bounded in-memory cache, so a retry storm
+ * for the same key is answered without a database round trip. A cached key expires with its row,
+ * not {@code ttl} after it was cached. Expired rows are purged in small chunks in the background.
+ */
+@Component
+public class IdempotencyKeys {
+  private static final Logger log = LoggerFactory.getLogger(IdempotencyKeys.class);
+
+  private final IdempotencyKeyRepository repository;
+  private final TransactionTemplate tx;
+  private final Duration ttl;
+  private final int purgeChunkSize;
+  private final Cache<String, Recent> recent;
+  private final Counter replayedFromCache;
+  private final Counter replayedFromDb;
+
+  public IdempotencyKeys(
+      IdempotencyKeyRepository repository,
+      TransactionTemplate tx,
+      MeterRegistry meterRegistry,
+      @Value("${orders.idempotency.ttl:24h}") Duration ttl,
+      @Value("${orders.idempotency.cache-size:100000}") long cacheSize,
+      @Value("${orders.idempotency.purge-chunk-size:1000}") int purgeChunkSize) {
+    this.repository = repository;
+    this.tx = tx;
+    this.ttl = ttl;
+    this.purgeChunkSize = Math.max(1, purgeChunkSize);
+    this.recent =
+        Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfter(new UntilRowExpires())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, recent, "idempotency_keys");
+    this.replayedFromCache =
+        meterRegistry.counter("orders.idempotency.replayed", "source", "cache");
+    this.replayedFromDb = meterRegistry.counter("orders.idempotency.replayed", "source", "db");
+  }
+
+  /** The order created for this key, if this node has seen the key recently; no I/O. */
+  public Optional<String> recent(String tenantId, String key) {
+    Recent cached = recent.getIfPresent(cacheKey(tenantId, key));
+    if (cached == null) return Optional.empty();
+    replayedFromCache.increment();
+    return Optional.of(cached.orderId());
+  }
+
+  /**
+   * The order created for this key, from the table (must run inside a transaction). An expired row
+   * is deleted here so that the key can be claimed again.
+   */
+  public Optional<String> find(String tenantId, String key, Instant now) {
+    Optional<IdempotencyKey> row = repository.findByTenantIdAndKey(tenantId, key);
+    if (row.isEmpty()) return Optional.empty();
+    if (row.get().getExpiresAt().isBefore(now)) {
+      repository.delete(row.get());
+      repository.flush();
+      return Optional.empty();
+    }
+    replayedFromDb.increment();
+    recent.put(
+        cacheKey(tenantId, key), new Recent(row.get().getOrderId(), row.get().getExpiresAt()));
+    return Optional.of(row.get().getOrderId());
+  }
+
+  /**
+   * Records the key for a new order and flushes at once (must run inside the transaction creating
+   * the order), so a concurrent request with the same key fails on the unique index before either
+   * order is written.
+   */
+  public void claim(String tenantId, String key, String orderId, Instant now) {
+    repository.saveAndFlush(
+        IdempotencyKey.builder()
+            .tenantId(tenantId)
+            .key(key)
+            .orderId(orderId)
+            .createdAt(now)
+            .expiresAt(now.plus(ttl))
+            .build());
+  }
+
+  /** Caches a committed key that was {@link #claim claimed} at {@code claimedAt}. */
+  public void remember(String tenantId, String key, String orderId, Instant claimedAt) {
+    recent.put(cacheKey(tenantId, key), new Recent(orderId, claimedAt.plus(ttl)));
+  }
+
+  @Scheduled(
+      fixedDelayString = "${orders.idempotency.purge-interval-ms:60000}",
+      initialDelayString = "${orders.idempotency.purge-interval-ms:60000}")
+  public void scheduledPurge() {
+    purgeExpired();
+  }
+
+  /** Deletes every expired key, one chunk per transaction; returns how many. */
+  public long purgeExpired() {
+    Instant now = Instant.now();
+    long total = 0;
+    while (true) {
+      Integer deleted =
+          tx.execute(
+              status -> {
+                List<Long> ids = repository.findExpiredIds(now, PageRequest.of(0, purgeChunkSize));
+                return ids.isEmpty() ? 0 : repository.deleteByIds(ids);
+              });
+      if (deleted == null || deleted == 0) break;
+      total += deleted;
+      if (deleted < purgeChunkSize) break;
+    }
+    if (total > 0) log.info("Purged {} expired idempotency keys", total);
+    return total;
+  }
+
+  private static String cacheKey(String tenantId, String key) {
+    // header values cannot contain a line feed
+    return tenantId + '\n' + key;
+  }
+
+  private record Recent(String orderId, Instant expiresAt) {}
+
+  /** Each cached key lives until its row's {@code expires_at}; reads do not extend it. */
+  private static final class UntilRowExpires implements Expiry<String, Recent> {
+    @Override
+    public long expireAfterCreate(String key, Recent value, long currentTime) {
+      long nanos = Duration.between(Instant.now(), value.expiresAt()).toNanos();
+      return Math.max(0, nanos);
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, Recent value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, Recent value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
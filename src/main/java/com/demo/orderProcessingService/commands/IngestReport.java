@@ -0,0 +1,17 @@
+package com.demo.orderProcessingService.commands;
+
+import java.util.List;
+
+/** Outcome of one NDJSON ingest; only the first few line errors are kept. */
+public record IngestReport(
+    long linesRead,
+    long accepted,
+    long rejected,
+    long chunksCommitted,
+    long elapsedMs,
+    boolean completed,
+    List<LineError> errors,
+    boolean errorsTruncated) {
+
+  public record LineError(long line, String error) {}
+}
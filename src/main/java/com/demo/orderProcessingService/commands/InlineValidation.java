@@ -0,0 +1,85 @@
+package com.demo.orderProcessingService.commands;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.outbox.OutboxBacklogMonitor;
+import com.demo.orderProcessingService.validation.ValidatorRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional fast path for single creates ({@code orders.inline-validation.enabled}): while a
+ * tenant's outbox backlog in the latest {@link OutboxBacklogMonitor} snapshot is below {@code
+ * max-backlog}, the tenant validator runs in the request and the order is stored with its final
+ * status. Under load, or when the validator throws, the order takes the asynchronous outbox path as
+ * before. Reading the snapshot costs no query; it is at most one backlog refresh old. Until the
+ * first refresh after startup, or once the snapshot is older than {@code max-snapshot-age-ms}
+ * (refreshes failing), the backlog is unknown and every order takes the outbox path.
+ */
+@Component
+public class InlineValidation {
+  private static final Logger log = LoggerFactory.getLogger(InlineValidation.class);
+
+  private final ValidatorRegistry validatorRegistry;
+  private final OutboxBacklogMonitor backlogMonitor;
+  private final boolean enabled;
+  private final long maxBacklog;
+  private final Duration maxSnapshotAge;
+  private final Counter inline;
+  private final Counter deferred;
+
+  public InlineValidation(
+      ValidatorRegistry validatorRegistry,
+      OutboxBacklogMonitor backlogMonitor,
+      MeterRegistry meterRegistry,
+      @Value("${orders.inline-validation.enabled:false}") boolean enabled,
+      @Value("${orders.inline-validation.max-backlog:100}") long maxBacklog,
+      @Value("${orders.inline-validation.max-snapshot-age-ms:15000}") long maxSnapshotAgeMs) {
+    this.validatorRegistry = validatorRegistry;
+    this.backlogMonitor = backlogMonitor;
+    this.enabled = enabled;
+    this.maxBacklog = maxBacklog;
+    this.maxSnapshotAge = Duration.ofMillis(maxSnapshotAgeMs);
+    this.inline = meterRegistry.counter("orders.validation", "path", "inline");
+    this.deferred = meterRegistry.counter("orders.validation", "path", "outbox");
+  }
+
+  /**
+   * The final status of {@code order} if it can be decided now, or empty to leave it PENDING for
+   * the outbox worker.
+   */
+  public Optional<OrderEntity.OrderStatus> validate(OrderEntity order) {
+    if (!enabled) return Optional.empty();
+    if (backlogged(order.getTenantId())) {
+      deferred.increment();
+      return Optional.empty();
+    }
+    try {
+      boolean ok = validatorRegistry.get(order.getTenantId()).validate(order);
+      inline.increment();
+      return Optional.of(ok ? OrderEntity.OrderStatus.PROCESSED : OrderEntity.OrderStatus.FAILED);
+    } catch (RuntimeException ex) {
+      // the outbox path retries with backoff
+      log.debug("Inline validation of order {} failed: {}", order.getId(), ex.getMessage());
+      deferred.increment();
+      return Optional.empty();
+    }
+  }
+
+  private boolean backlogged(String tenantId) {
+    if (tenantId == null) return true;
+    Instant refreshedAt = backlogMonitor.refreshedAt();
+    if (refreshedAt == null || refreshedAt.plus(maxSnapshotAge).isBefore(Instant.now())) {
+      return true;
+    }
+    // a current snapshot leaves out tenants with nothing queued
+    OutboxBacklogMonitor.TenantBacklog backlog = backlogMonitor.snapshot().get(tenantId);
+    return backlog != null && backlog.pending() + backlog.inProgress() >= maxBacklog;
+  }
+}
@@ -0,0 +1,160 @@
+package com.demo.orderProcessingService.commands;
+
+import com.demo.orderProcessingService.outbox.OutboxBacklogMonitor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether a tenant's orders may enter ({@code orders.admission.enabled}). A tenant is shed
+ * while its outbox backlog in the latest {@link OutboxBacklogMonitor} snapshot has reached {@code
+ * max-backlog} events or its oldest due pending event has waited longer than {@code max-lag}, and
+ * throttled by a per-tenant token bucket of {@code rate-per-second} (overridable per tenant under
+ * {@code rates}) holding {@code burst-seconds} worth of tokens. Every order costs one token,
+ * whether it arrives on its own, in a batch or in an ingest chunk. Every check is in memory;
+ * nothing here queries the database.
+ */
+@Component
+public class OrderAdmission {
+
+  /** Outcome of {@link #admit}; {@code reason} is null when the create may go ahead. */
+  public record Decision(String reason, long retryAfterSeconds) {
+    static final Decision ADMIT = new Decision(null, 0);
+
+    public boolean admitted() {
+      return reason == null;
+    }
+  }
+
+  private final OutboxBacklogMonitor backlogMonitor;
+  private final boolean enabled;
+  private final long maxBacklog;
+  private final Duration maxLag;
+  private final double defaultRate;
+  private final double burstSeconds;
+  private final long maxRetryAfterSeconds;
+  private final Map<String, Double> rates;
+  private final Cache<String, TokenBucket> buckets;
+  private final Counter shedBacklog;
+  private final Counter shedLag;
+  private final Counter throttled;
+
+  public OrderAdmission(
+      OutboxBacklogMonitor backlogMonitor,
+      MeterRegistry meterRegistry,
+      Environment environment,
+      @Value("${orders.admission.enabled:false}") boolean enabled,
+      @Value("${orders.admission.max-backlog:50000}") long maxBacklog,
+      @Value("${orders.admission.max-lag:5m}") Duration maxLag,
+      @Value("${orders.admission.rate-per-second:500}") double defaultRate,
+      @Value("${orders.admission.burst-seconds:2}") double burstSeconds,
+      @Value("${orders.admission.max-retry-after-seconds:60}") long maxRetryAfterSeconds,
+      @Value("${orders.admission.max-tenants:10000}") long maxTenants) {
+    this.backlogMonitor = backlogMonitor;
+    this.enabled = enabled;
+    this.maxBacklog = maxBacklog;
+    this.maxLag = maxLag;
+    this.defaultRate = defaultRate;
+    this.burstSeconds = burstSeconds;
+    this.maxRetryAfterSeconds = Math.max(1, maxRetryAfterSeconds);
+    this.rates =
+        Map.copyOf(
+            Binder.get(environment)
+                .bind("orders.admission.rates", Bindable.mapOf(String.class, Double.class))
+                .orElse(Map.of()));
+    // an evicted tenant simply starts again with a full bucket
+    this.buckets =
+        Caffeine.newBuilder()
+            .maximumSize(maxTenants)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    this.shedBacklog = meterRegistry.counter("orders.admission.rejected", "reason", "backlog");
+    this.shedLag = meterRegistry.counter("orders.admission.rejected", "reason", "lag");
+    this.throttled = meterRegistry.counter("orders.admission.rejected", "reason", "rate");
+  }
+
+  public Decision admit(String tenantId) {
+    return admit(tenantId, 1);
+  }
+
+  /** Admits {@code orders} orders of one tenant at once, taking one token for each. */
+  public Decision admit(String tenantId, int orders) {
+    if (!enabled || tenantId == null || orders < 1) return Decision.ADMIT;
+
+    // shed first, so requests turned away for lag do not use up the tenant's tokens
+    OutboxBacklogMonitor.TenantBacklog backlog = backlogMonitor.snapshot().get(tenantId);
+    if (backlog != null) {
+      long depth = backlog.pending() + backlog.inProgress();
+      if (depth >= maxBacklog) {
+        shedBacklog.increment();
+        return new Decision("backlog", drainSeconds(tenantId, depth - maxBacklog + 1));
+      }
+      if (backlog.oldestPendingAge(Instant.now()).compareTo(maxLag) > 0) {
+        shedLag.increment();
+        return new Decision("lag", drainSeconds(tenantId, backlog.pending()));
+      }
+    }
+
+    double rate = rates.getOrDefault(tenantId, defaultRate);
+    if (rate <= 0) return Decision.ADMIT;
+    long now = System.nanoTime();
+    TokenBucket bucket = buckets.get(tenantId, t -> new TokenBucket(rate, burstSeconds, now));
+    long waitNanos = bucket.tryTake(now, orders);
+    if (waitNanos == 0) return Decision.ADMIT;
+    throttled.increment();
+    return new Decision("rate", clamp(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+  }
+
+  /** Seconds until the tenant's workers finish {@code events} at their recent rate on this node. */
+  private long drainSeconds(String tenantId, long events) {
+    double perSecond = backlogMonitor.throughput().getOrDefault(tenantId, 0.0);
+    if (perSecond <= 0) return maxRetryAfterSeconds;
+    return clamp((long) Math.ceil(events / perSecond));
+  }
+
+  private long clamp(long seconds) {
+    return Math.min(Math.max(1, seconds), maxRetryAfterSeconds);
+  }
+
+  /**
+   * Token bucket kept as one timestamp: the moment the bucket will be full again (the "theoretical
+   * arrival time" of GCRA). Taking a token pushes it one interval further; a token is available
+   * while it is at most {@code capacity} ahead of now. Lock-free, so request threads never block. A
+   * full bucket admits even a request larger than its capacity, which then leaves the bucket in
+   * debt for the excess, so a batch bigger than the burst is delayed rather than never admitted.
+   */
+  static final class TokenBucket {
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(double ratePerSecond, double burstSeconds, long now) {
+      this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+      this.capacityNanos = intervalNanos * Math.max(1, (long) (ratePerSecond * burstSeconds));
+      this.fullAt = new AtomicLong(now);
+    }
+
+    /** Takes {@code tokens} and returns 0, or returns the nanoseconds until they are available. */
+    long tryTake(long now, int tokens) {
+      while (true) {
+        long current = fullAt.get();
+        boolean full = current - now <= 0;
+        long next = (full ? now : current) + intervalNanos * tokens;
+        long excess = next - now - capacityNanos;
+        if (excess > 0 && !full) return Math.min(excess, current - now);
+        if (fullAt.compareAndSet(current, next)) return 0;
+      }
+    }
+  }
+}
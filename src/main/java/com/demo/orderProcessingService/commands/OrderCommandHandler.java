@@ -1,48 +1,221 @@
 package com.demo.orderProcessingService.commands;
 
 import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.domain.OrderStatusChangedEvent;
+import com.demo.orderProcessingService.domain.OrdersCreatedEvent;
 import com.demo.orderProcessingService.outbox.OutboxEvent;
+import com.demo.orderProcessingService.outbox.OutboxEventsEnqueued;
 import com.demo.orderProcessingService.outbox.OutboxRepository;
 import com.demo.orderProcessingService.repository.OrderRepository;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class OrderCommandHandler {
   private final OrderRepository orderRepo;
   private final OutboxRepository outboxRepo;
+  private final ApplicationEventPublisher events;
+  private final IdempotencyKeys idempotencyKeys;
+  private final InlineValidation inlineValidation;
+  private final TransactionTemplate tx;
 
-  public OrderCommandHandler(OrderRepository orderRepo, OutboxRepository outboxRepo) {
+  public OrderCommandHandler(
+      OrderRepository orderRepo,
+      OutboxRepository outboxRepo,
+      ApplicationEventPublisher events,
+      IdempotencyKeys idempotencyKeys,
+      InlineValidation inlineValidation,
+      TransactionTemplate tx) {
     this.orderRepo = orderRepo;
     this.outboxRepo = outboxRepo;
+    this.events = events;
+    this.idempotencyKeys = idempotencyKeys;
+    this.inlineValidation = inlineValidation;
+    this.tx = tx;
   }
 
   @Transactional
   public String handle(CreateOrderCommand cmd) {
-    String id = UUID.randomUUID().toString();
-    OrderEntity order =
-        OrderEntity.builder()
-            .id(id)
-            .tenantId(cmd.getTenantId())
-            .amount(cmd.getAmount())
-            .quantity(cmd.getQuantity())
-            .status(OrderEntity.OrderStatus.PENDING)
-            .build();
+    Instant now = Instant.now();
+    OrderEntity order = newOrder(cmd, now);
+    create(order, now);
+    return order.getId();
+  }
 
-    orderRepo.save(order);
+  /** The order a recent request with this key created, straight from memory; no I/O. */
+  public Optional<String> recentReplay(String tenantId, String idempotencyKey) {
+    return idempotencyKeys.recent(tenantId, idempotencyKey);
+  }
+
+  /**
+   * Like {@link #handle(CreateOrderCommand)}, but creates at most one order per tenant and {@code
+   * idempotencyKey} while the key is live: a repeat gets the original order id back, straight from
+   * memory when this node saw the key recently, and nothing is written.
+   */
+  public CreateOrderResult handle(CreateOrderCommand cmd, String idempotencyKey) {
+    String tenantId = cmd.getTenantId();
+    Optional<String> recent = idempotencyKeys.recent(tenantId, idempotencyKey);
+    if (recent.isPresent()) return new CreateOrderResult(recent.get(), true);
+
+    Instant now = Instant.now();
+    CreateOrderResult result;
+    try {
+      result = tx.execute(status -> createOnce(cmd, idempotencyKey, now));
+    } catch (DataIntegrityViolationException | OptimisticLockingFailureException ex) {
+      // a concurrent request with the same key committed first, or replaced or purged the expired
+      // row this one was deleting; answer with its order, or claim the key now that it is free
+      result =
+          tx.execute(
+              status ->
+                  idempotencyKeys
+                      .find(tenantId, idempotencyKey, now)
+                      .map(orderId -> new CreateOrderResult(orderId, true))
+                      .orElseGet(() -> createOnce(cmd, idempotencyKey, now)));
+    }
+    if (!result.replayed()) {
+      idempotencyKeys.remember(tenantId, idempotencyKey, result.orderId(), now);
+    }
+    return result;
+  }
 
-    OutboxEvent event =
-        OutboxEvent.builder()
-            .eventType("ORDER_CREATED")
-            .payload("{\"orderId\":\"" + id + "\"}")
-            .status(OutboxEvent.Status.PENDING)
-            .createdAt(Instant.now())
-            .updatedAt(Instant.now())
-            .build();
+  private CreateOrderResult createOnce(CreateOrderCommand cmd, String idempotencyKey, Instant now) {
+    Optional<String> existing = idempotencyKeys.find(cmd.getTenantId(), idempotencyKey, now);
+    if (existing.isPresent()) return new CreateOrderResult(existing.get(), true);
 
+    OrderEntity order = newOrder(cmd, now);
+    // the key goes first: a duplicate fails here, before any order or outbox row is written
+    idempotencyKeys.claim(cmd.getTenantId(), idempotencyKey, order.getId(), now);
+    create(order, now);
+    return new CreateOrderResult(order.getId(), false);
+  }
+
+  /**
+   * Saves one new order with its outbox event. When {@link InlineValidation} decides the order
+   * right away, both are stored final and the worker has nothing left to do.
+   */
+  private void create(OrderEntity order, Instant now) {
+    String tenantId = order.getTenantId();
+    Optional<OrderEntity.OrderStatus> decided = inlineValidation.validate(order);
+    OutboxEvent event = newEvent(order, now);
+    if (decided.isPresent()) {
+      order.setStatus(decided.get());
+      event.setStatus(OutboxEvent.Status.PROCESSED);
+    }
+    orderRepo.save(order);
     outboxRepo.save(event);
-    return id;
+
+    events.publishEvent(new OrdersCreatedEvent(tenantId, 1, order.getAmount()));
+    if (decided.isPresent()) {
+      events.publishEvent(
+          new OrderStatusChangedEvent(
+              order.getId(),
+              tenantId,
+              order.getAmount(),
+              OrderEntity.OrderStatus.PENDING,
+              decided.get()));
+    } else {
+      // wakes the outbox worker once this transaction commits
+      events.publishEvent(new OutboxEventsEnqueued(tenantId, 1));
+    }
+  }
+
+  /**
+   * Create all orders and their outbox events in one transaction. Inserts are flushed as JDBC
+   * batches ({@code hibernate.jdbc.batch_size}); ids are returned in command order.
+   */
+  @Transactional
+  public List<String> handleBatch(List<CreateOrderCommand> cmds) {
+    return createAll(cmds, false);
+  }
+
+  /**
+   * Like {@link #handleBatch}, for single creates that {@link GroupCommitWriter} groups into one
+   * commit: each order gets the {@link InlineValidation} decision {@link #handle} would give it.
+   */
+  @Transactional
+  public List<String> handleGrouped(List<CreateOrderCommand> cmds) {
+    return createAll(cmds, true);
+  }
+
+  private List<String> createAll(List<CreateOrderCommand> cmds, boolean inline) {
+    Instant now = Instant.now();
+    List<OrderEntity> orders = new ArrayList<>(cmds.size());
+    List<OutboxEvent> outbox = new ArrayList<>(cmds.size());
+    List<String> ids = new ArrayList<>(cmds.size());
+    List<OrderStatusChangedEvent> decided = new ArrayList<>();
+    Map<String, Integer> perTenant = new HashMap<>();
+    Map<String, Integer> enqueuedPerTenant = new HashMap<>();
+    Map<String, Double> amountPerTenant = new HashMap<>();
+    for (CreateOrderCommand cmd : cmds) {
+      OrderEntity order = newOrder(cmd, now);
+      OutboxEvent event = newEvent(order, now);
+      Optional<OrderEntity.OrderStatus> status =
+          inline ? inlineValidation.validate(order) : Optional.empty();
+      if (status.isPresent()) {
+        order.setStatus(status.get());
+        event.setStatus(OutboxEvent.Status.PROCESSED);
+        decided.add(
+            new OrderStatusChangedEvent(
+                order.getId(),
+                order.getTenantId(),
+                order.getAmount(),
+                OrderEntity.OrderStatus.PENDING,
+                status.get()));
+      } else {
+        enqueuedPerTenant.merge(cmd.getTenantId(), 1, Integer::sum);
+      }
+      orders.add(order);
+      outbox.add(event);
+      ids.add(order.getId());
+      perTenant.merge(cmd.getTenantId(), 1, Integer::sum);
+      amountPerTenant.merge(cmd.getTenantId(), order.getAmount(), Double::sum);
+    }
+
+    orderRepo.saveAll(orders);
+    outboxRepo.saveAll(outbox);
+
+    perTenant.forEach(
+        (tenant, count) ->
+            events.publishEvent(
+                new OrdersCreatedEvent(tenant, count, amountPerTenant.get(tenant))));
+    decided.forEach(events::publishEvent);
+    // wakes the outbox worker once this transaction commits
+    enqueuedPerTenant.forEach(
+        (tenant, count) -> events.publishEvent(new OutboxEventsEnqueued(tenant, count)));
+    return ids;
+  }
+
+  private OrderEntity newOrder(CreateOrderCommand cmd, Instant now) {
+    return OrderEntity.builder()
+        .id(UUID.randomUUID().toString())
+        .tenantId(cmd.getTenantId())
+        .amount(cmd.getAmount())
+        .quantity(cmd.getQuantity())
+        .status(OrderEntity.OrderStatus.PENDING)
+        .createdAt(now)
+        .updatedAt(now)
+        .build();
+  }
+
+  private OutboxEvent newEvent(OrderEntity order, Instant now) {
+    return OutboxEvent.builder()
+        .eventType("ORDER_CREATED")
+        .aggregateId(order.getId())
+        .tenantId(order.getTenantId())
+        .status(OutboxEvent.Status.PENDING)
+        .createdAt(now)
+        .updatedAt(now)
+        .build();
   }
 }
@@ -0,0 +1,227 @@
+package com.demo.orderProcessingService.commands;
+
+import com.demo.orderProcessingService.outbox.OutboxBacklogMonitor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Streams newline-delimited {@link CreateOrderCommand} records into the same batch path as {@link
+ * OrderCommandHandler#handleBatch}. Only one chunk is held in memory at a time, and before each
+ * chunk is committed the reader waits while the pending outbox backlog in the latest {@link
+ * OutboxBacklogMonitor} snapshot is above its limit and until {@link OrderAdmission} admits the
+ * chunk's orders, which in turn slows the client down through the unread request body.
+ */
+@Service
+public class OrderIngestService {
+  private static final Logger log = LoggerFactory.getLogger(OrderIngestService.class);
+
+  private final OrderCommandHandler handler;
+  private final OutboxBacklogMonitor backlogMonitor;
+  private final OrderAdmission admission;
+  private final ObjectMapper objectMapper;
+  private final int chunkSize;
+  private final int maxReportedErrors;
+  private final long maxOutboxBacklog;
+  private final long backpressureTimeoutMs;
+
+  public OrderIngestService(
+      OrderCommandHandler handler,
+      OutboxBacklogMonitor backlogMonitor,
+      OrderAdmission admission,
+      ObjectMapper objectMapper,
+      @Value("${orders.ingest.chunk-size:1000}") int chunkSize,
+      @Value("${orders.ingest.max-reported-errors:100}") int maxReportedErrors,
+      @Value("${orders.ingest.max-outbox-backlog:100000}") long maxOutboxBacklog,
+      @Value("${orders.ingest.backpressure-timeout-ms:600000}") long backpressureTimeoutMs) {
+    this.handler = handler;
+    this.backlogMonitor = backlogMonitor;
+    this.admission = admission;
+    this.objectMapper = objectMapper;
+    this.chunkSize = Math.max(1, chunkSize);
+    this.maxReportedErrors = maxReportedErrors;
+    this.maxOutboxBacklog = maxOutboxBacklog;
+    this.backpressureTimeoutMs = backpressureTimeoutMs;
+  }
+
+  public IngestReport ingest(InputStream body) throws IOException {
+    long started = System.currentTimeMillis();
+    Progress progress = new Progress();
+    List<CreateOrderCommand> chunk = new ArrayList<>(chunkSize);
+    long chunkFirstLine = 1;
+    boolean completed = true;
+
+    BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      long lineNo = ++progress.linesRead;
+      if (line.isBlank()) continue;
+
+      CreateOrderCommand cmd;
+      try {
+        cmd = objectMapper.readValue(line, CreateOrderCommand.class);
+      } catch (JsonProcessingException ex) {
+        progress.reject(lineNo, "malformed JSON: " + ex.getOriginalMessage());
+        continue;
+      }
+      String error = cmd == null ? "order is required" : cmd.shapeError();
+      if (error != null) {
+        progress.reject(lineNo, error);
+        continue;
+      }
+
+      if (chunk.isEmpty()) chunkFirstLine = lineNo;
+      chunk.add(cmd);
+      if (chunk.size() >= chunkSize) {
+        if (!commit(chunk, chunkFirstLine, lineNo, progress)) {
+          completed = false;
+          break;
+        }
+        chunk.clear();
+      }
+    }
+    if (completed && !chunk.isEmpty()) {
+      completed = commit(chunk, chunkFirstLine, progress.linesRead, progress);
+    }
+
+    long elapsed = System.currentTimeMillis() - started;
+    log.info(
+        "Ingest finished: {} lines, {} accepted, {} rejected in {} ms",
+        progress.linesRead,
+        progress.accepted,
+        progress.rejected,
+        elapsed);
+    return new IngestReport(
+        progress.linesRead,
+        progress.accepted,
+        progress.rejected,
+        progress.chunks,
+        elapsed,
+        completed,
+        progress.errors,
+        progress.errorsTruncated);
+  }
+
+  /**
+   * Returns false when the ingest should stop (backlog never drained, tenant never admitted or
+   * thread interrupted).
+   */
+  private boolean commit(
+      List<CreateOrderCommand> chunk, long firstLine, long lastLine, Progress progress) {
+    long deadline = System.currentTimeMillis() + backpressureTimeoutMs;
+    if (!awaitBacklogBelowLimit(deadline)) {
+      progress.reject(
+          firstLine,
+          "outbox backlog stayed above " + maxOutboxBacklog + "; stopped before this line",
+          chunk.size());
+      return false;
+    }
+    String limited = awaitAdmission(chunk, deadline);
+    if (limited != null) {
+      progress.reject(
+          firstLine,
+          "order intake stayed limited (" + limited + "); stopped before this line",
+          chunk.size());
+      return false;
+    }
+    try {
+      handler.handleBatch(chunk);
+      progress.accepted += chunk.size();
+      progress.chunks++;
+      log.info(
+          "Ingest progress: lines {}-{} committed, {} accepted so far",
+          firstLine,
+          lastLine,
+          progress.accepted);
+    } catch (RuntimeException ex) {
+      progress.reject(
+          firstLine, "lines " + firstLine + "-" + lastLine + ": " + ex.getMessage(), chunk.size());
+    }
+    return true;
+  }
+
+  private boolean awaitBacklogBelowLimit(long deadline) {
+    long sleep = 100;
+    // the monitor's snapshot, not a count per chunk: it is refreshed every backlog-refresh-ms
+    while (backlogMonitor.totalPending() > maxOutboxBacklog) {
+      if (System.currentTimeMillis() >= deadline) return false;
+      try {
+        Thread.sleep(sleep);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+      sleep = Math.min(sleep * 2, 2000);
+    }
+    return true;
+  }
+
+  /**
+   * Waits until every tenant in the chunk is admitted for its orders, sleeping out each {@code
+   * Retry-After}. Returns null once admitted, or the reason the last tenant was limited.
+   */
+  private String awaitAdmission(List<CreateOrderCommand> chunk, long deadline) {
+    Map<String, Integer> perTenant = new LinkedHashMap<>();
+    for (CreateOrderCommand cmd : chunk) perTenant.merge(cmd.getTenantId(), 1, Integer::sum);
+    while (true) {
+      OrderAdmission.Decision limited = null;
+      // admitted tenants are dropped, so they are not charged again while the others wait
+      Iterator<Map.Entry<String, Integer>> tenants = perTenant.entrySet().iterator();
+      while (tenants.hasNext()) {
+        Map.Entry<String, Integer> tenant = tenants.next();
+        OrderAdmission.Decision decision = admission.admit(tenant.getKey(), tenant.getValue());
+        if (decision.admitted()) {
+          tenants.remove();
+        } else {
+          limited = decision;
+        }
+      }
+      if (limited == null) return null;
+
+      long wait = TimeUnit.SECONDS.toMillis(limited.retryAfterSeconds());
+      if (System.currentTimeMillis() + wait > deadline) return limited.reason();
+      try {
+        Thread.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return limited.reason();
+      }
+    }
+  }
+
+  private final class Progress {
+    long linesRead;
+    long accepted;
+    long rejected;
+    long chunks;
+    final List<IngestReport.LineError> errors = new ArrayList<>();
+    boolean errorsTruncated;
+
+    void reject(long line, String error) {
+      reject(line, error, 1);
+    }
+
+    void reject(long line, String error, int lines) {
+      rejected += lines;
+      if (errors.size() < maxReportedErrors) {
+        errors.add(new IngestReport.LineError(line, error));
+      } else {
+        errorsTruncated = true;
+      }
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.demo.orderProcessingService.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Bounds how many requests to a set of handlers (by default one controller class) run at once. With
+ * virtual threads every connection gets its own thread, so nothing but this limit stops thousands
+ * of requests from queueing inside the connection pool; excess requests wait up to {@code
+ * max-wait-ms} for a permit, in arrival order, and are then answered {@code 503} with {@code
+ * Retry-After}. A request that goes async (a long-poll) gives its permit back while it is parked.
+ */
+public class EndpointBulkhead implements AsyncHandlerInterceptor {
+  private static final String PERMIT = EndpointBulkhead.class.getName() + ".permit";
+
+  private final String name;
+  private final Predicate<HandlerMethod> handlers;
+  private final long maxWaitNanos;
+  private final Semaphore permits;
+  private final Counter rejected;
+  private final Timer wait;
+
+  public EndpointBulkhead(
+      String name,
+      Class<?> endpoint,
+      int maxConcurrent,
+      long maxWaitMs,
+      MeterRegistry meterRegistry) {
+    this(name, m -> m.getBeanType() == endpoint, maxConcurrent, maxWaitMs, meterRegistry);
+  }
+
+  public EndpointBulkhead(
+      String name,
+      Predicate<HandlerMethod> handlers,
+      int maxConcurrent,
+      long maxWaitMs,
+      MeterRegistry meterRegistry) {
+    if (maxConcurrent < 1) {
+      throw new IllegalArgumentException(
+          "orders.bulkhead." + name + ".max-concurrent must be positive");
+    }
+    this.name = name;
+    this.handlers = handlers;
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+    this.permits = new Semaphore(maxConcurrent, true);
+    this.rejected = meterRegistry.counter("orders.bulkhead.rejected", "endpoint", name);
+    this.wait =
+        Timer.builder("orders.bulkhead.wait")
+            .description("Time a request waited for a bulkhead permit")
+            .tag("endpoint", name)
+            .register(meterRegistry);
+    Gauge.builder("orders.bulkhead.active", permits, p -> maxConcurrent - p.availablePermits())
+        .description("Requests holding a bulkhead permit")
+        .tag("endpoint", name)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+      throws IOException {
+    if (!(handler instanceof HandlerMethod method) || !handlers.test(method)) return true;
+    // the dispatch that writes a long-poll result does no database work
+    if (request.getDispatcherType() == DispatcherType.ASYNC) return true;
+
+    long started = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    wait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    if (acquired) {
+      request.setAttribute(PERMIT, this);
+      return true;
+    }
+
+    rejected.increment();
+    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(maxWaitNanos));
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response
+        .getWriter()
+        .write("{\"error\":\"too many concurrent " + name + " requests, retry later\"}");
+    return false;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    release(request);
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    release(request);
+  }
+
+  private void release(HttpServletRequest request) {
+    if (request.getAttribute(PERMIT) != this) return;
+    request.removeAttribute(PERMIT);
+    permits.release();
+  }
+}
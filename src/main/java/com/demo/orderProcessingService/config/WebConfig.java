@@ -0,0 +1,79 @@
+package com.demo.orderProcessingService.config;
+
+import com.demo.orderProcessingService.controller.BulkLoad;
+import com.demo.orderProcessingService.controller.CommandController;
+import com.demo.orderProcessingService.controller.QueryController;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * {@link EndpointBulkhead}s sized against the connection pool: single creates, bulk loads ({@code
+ * /batch} and {@code /ingest}, which hold a permit for the whole load) and queries each get their
+ * own limit, so a burst of one cannot starve the others. Bulk handlers are the ones marked {@link
+ * BulkLoad}. With group commit on, creates mostly wait for a committer rather than a connection, so
+ * their limit is raised to at least what the committers can take in one round.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+  private static final Logger log = LoggerFactory.getLogger(WebConfig.class);
+
+  private final boolean bulkheadEnabled;
+  private final EndpointBulkhead commandBulkhead;
+  private final EndpointBulkhead bulkBulkhead;
+  private final EndpointBulkhead queryBulkhead;
+
+  public WebConfig(
+      MeterRegistry meterRegistry,
+      @Value("${orders.bulkhead.enabled:true}") boolean bulkheadEnabled,
+      @Value("${orders.bulkhead.commands.max-concurrent:8}") int maxCommands,
+      @Value("${orders.bulkhead.commands.max-wait-ms:2000}") long maxCommandWaitMs,
+      @Value("${orders.bulkhead.bulk.max-concurrent:2}") int maxBulk,
+      @Value("${orders.bulkhead.bulk.max-wait-ms:2000}") long maxBulkWaitMs,
+      @Value("${orders.bulkhead.queries.max-concurrent:16}") int maxQueries,
+      @Value("${orders.bulkhead.queries.max-wait-ms:1000}") long maxQueryWaitMs,
+      @Value("${orders.group-commit.enabled:false}") boolean groupCommit,
+      @Value("${orders.group-commit.max-batch-size:200}") int groupCommitBatchSize,
+      @Value("${orders.group-commit.committers:2}") int groupCommitters) {
+    this.bulkheadEnabled = bulkheadEnabled;
+    if (groupCommit && maxCommands < groupCommitBatchSize * groupCommitters) {
+      maxCommands = groupCommitBatchSize * groupCommitters;
+      log.info("Group commit is on: allowing {} concurrent creates", maxCommands);
+    }
+    this.commandBulkhead =
+        new EndpointBulkhead(
+            "commands",
+            m -> m.getBeanType() == CommandController.class && !isBulk(m),
+            maxCommands,
+            maxCommandWaitMs,
+            meterRegistry);
+    this.bulkBulkhead =
+        new EndpointBulkhead(
+            "bulk",
+            m -> m.getBeanType() == CommandController.class && isBulk(m),
+            maxBulk,
+            maxBulkWaitMs,
+            meterRegistry);
+    this.queryBulkhead =
+        new EndpointBulkhead(
+            "queries", QueryController.class, maxQueries, maxQueryWaitMs, meterRegistry);
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    if (!bulkheadEnabled) return;
+    // each bulkhead only acts on its own handlers
+    registry.addInterceptor(commandBulkhead);
+    registry.addInterceptor(bulkBulkhead);
+    registry.addInterceptor(queryBulkhead);
+  }
+
+  private static boolean isBulk(HandlerMethod method) {
+    return method.hasMethodAnnotation(BulkLoad.class);
+  }
+}
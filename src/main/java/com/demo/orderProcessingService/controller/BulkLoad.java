@@ -0,0 +1,17 @@
+package com.demo.orderProcessingService.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler that loads many orders in one request. Such handlers hold their bulkhead permit
+ * for the whole load, so they get their own limit ({@code orders.bulkhead.bulk}) instead of sharing
+ * the one for single creates.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BulkLoad {}
@@ -1,22 +1,150 @@
 package com.demo.orderProcessingService.controller;
 
 import com.demo.orderProcessingService.commands.CreateOrderCommand;
+import com.demo.orderProcessingService.commands.CreateOrderResult;
+import com.demo.orderProcessingService.commands.GroupCommitWriter;
+import com.demo.orderProcessingService.commands.IngestReport;
+import com.demo.orderProcessingService.commands.OrderAdmission;
 import com.demo.orderProcessingService.commands.OrderCommandHandler;
+import com.demo.orderProcessingService.commands.OrderIngestService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 public class CommandController {
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
   private final OrderCommandHandler handler;
+  private final OrderIngestService ingestService;
+  private final GroupCommitWriter groupCommit;
+  private final OrderAdmission admission;
+  private final int maxBatchSize;
 
-  public CommandController(OrderCommandHandler handler) {
+  public CommandController(
+      OrderCommandHandler handler,
+      OrderIngestService ingestService,
+      GroupCommitWriter groupCommit,
+      OrderAdmission admission,
+      @Value("${orders.batch.max-size:5000}") int maxBatchSize) {
     this.handler = handler;
+    this.ingestService = ingestService;
+    this.groupCommit = groupCommit;
+    this.admission = admission;
+    this.maxBatchSize = maxBatchSize;
   }
 
+  /**
+   * With an {@code Idempotency-Key} header, a retry of the same request returns the original order
+   * id (marked with {@code Idempotent-Replayed: true}) instead of creating another order. Answers
+   * {@code 429} with {@code Retry-After} while the tenant is over its intake rate or its outbox is
+   * lagging; see {@link OrderAdmission}. A retry this node answers from memory is replayed before
+   * admission, so it neither takes a token nor gets {@code 429}.
+   */
   @PostMapping
-  public ResponseEntity<?> create(@RequestBody CreateOrderCommand cmd) {
-    String id = handler.handle(cmd);
-    return ResponseEntity.accepted().body("{\"orderId\":\"" + id + "\"}");
+  public ResponseEntity<?> create(
+      @RequestBody CreateOrderCommand cmd,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+    if (idempotencyKey != null) {
+      if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+        return ResponseEntity.badRequest()
+            .body(
+                Map.of(
+                    "error",
+                    IDEMPOTENCY_KEY
+                        + " must be 1 to "
+                        + MAX_IDEMPOTENCY_KEY_LENGTH
+                        + " characters"));
+      }
+      Optional<String> replayed = handler.recentReplay(cmd.getTenantId(), idempotencyKey);
+      if (replayed.isPresent()) return accepted(replayed.get(), true);
+    }
+    OrderAdmission.Decision decision = admission.admit(cmd.getTenantId());
+    if (!decision.admitted()) return tooManyRequests(decision);
+    if (idempotencyKey == null) {
+      String id;
+      try {
+        id = groupCommit.enabled() ? groupCommit.create(cmd) : handler.handle(cmd);
+      } catch (RejectedExecutionException | GroupCommitWriter.CommitTimeoutException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body(Map.of("error", ex.getMessage()));
+      }
+      return ResponseEntity.accepted().body("{\"orderId\":\"" + id + "\"}");
+    }
+    String error = cmd.shapeError();
+    if (error != null) return ResponseEntity.badRequest().body(Map.of("error", error));
+
+    CreateOrderResult result = handler.handle(cmd, idempotencyKey);
+    return accepted(result.orderId(), result.replayed());
+  }
+
+  /**
+   * Admitted like single creates, one token per order for each tenant in the batch; if any tenant
+   * is limited the whole batch gets {@code 429}.
+   */
+  @BulkLoad
+  @PostMapping("/batch")
+  public ResponseEntity<?> createBatch(@RequestBody List<CreateOrderCommand> cmds) {
+    if (cmds == null || cmds.isEmpty()) {
+      return ResponseEntity.badRequest().body(Map.of("error", "at least one order is required"));
+    }
+    if (cmds.size() > maxBatchSize) {
+      return ResponseEntity.badRequest()
+          .body(Map.of("error", "at most " + maxBatchSize + " orders per batch"));
+    }
+    List<Map<String, Object>> errors = new ArrayList<>();
+    for (int i = 0; i < cmds.size(); i++) {
+      CreateOrderCommand cmd = cmds.get(i);
+      String error = cmd == null ? "order is required" : cmd.shapeError();
+      if (error != null) errors.add(Map.of("index", i, "error", error));
+    }
+    if (!errors.isEmpty()) {
+      return ResponseEntity.badRequest().body(Map.of("errors", errors));
+    }
+    Map<String, Integer> perTenant = new LinkedHashMap<>();
+    for (CreateOrderCommand cmd : cmds) perTenant.merge(cmd.getTenantId(), 1, Integer::sum);
+    for (Map.Entry<String, Integer> tenant : perTenant.entrySet()) {
+      OrderAdmission.Decision decision = admission.admit(tenant.getKey(), tenant.getValue());
+      if (!decision.admitted()) return tooManyRequests(decision);
+    }
+
+    List<String> ids = handler.handleBatch(cmds);
+    return ResponseEntity.accepted().body(Map.of("orderIds", ids));
+  }
+
+  /**
+   * Streams newline-delimited orders; the body is read incrementally and committed in chunks, each
+   * waiting for admission instead of failing with {@code 429}.
+   */
+  @BulkLoad
+  @PostMapping(
+      value = "/ingest",
+      consumes = {"application/x-ndjson", "application/jsonl", "text/plain"})
+  public ResponseEntity<IngestReport> ingest(InputStream body) throws IOException {
+    return ResponseEntity.ok(ingestService.ingest(body));
+  }
+
+  private static ResponseEntity<?> accepted(String orderId, boolean replayed) {
+    return ResponseEntity.accepted()
+        .header("Idempotent-Replayed", String.valueOf(replayed))
+        .body("{\"orderId\":\"" + orderId + "\"}");
+  }
+
+  private static ResponseEntity<?> tooManyRequests(OrderAdmission.Decision decision) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()))
+        .body(Map.of("error", "order intake is limited (" + decision.reason() + ")"));
   }
 }
@@ -0,0 +1,29 @@
+package com.demo.orderProcessingService.controller;
+
+import com.demo.orderProcessingService.queries.TenantOrderStats;
+import com.demo.orderProcessingService.queries.TenantOrderTotals;
+import java.util.List;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/order-stats")
+public class OrderStatsAdminController {
+  private final TenantOrderStats tenantStats;
+
+  public OrderStatsAdminController(TenantOrderStats tenantStats) {
+    this.tenantStats = tenantStats;
+  }
+
+  /** Recomputes the per-tenant totals from the orders table, for reconciliation. */
+  @PostMapping("/rebuild")
+  public List<TenantOrderTotals> rebuild() {
+    return tenantStats.rebuild();
+  }
+
+  /** Writes this node's pending changes to the checkpoint table now. */
+  @PostMapping("/checkpoint")
+  public List<TenantOrderTotals> checkpoint() {
+    tenantStats.checkpoint();
+    return tenantStats.all();
+  }
+}
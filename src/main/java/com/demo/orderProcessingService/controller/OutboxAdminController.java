@@ -0,0 +1,92 @@
+package com.demo.orderProcessingService.controller;
+
+import com.demo.orderProcessingService.outbox.OutboxEvent;
+import com.demo.orderProcessingService.outbox.OutboxEventArchive;
+import com.demo.orderProcessingService.outbox.OutboxRetentionService;
+import com.demo.orderProcessingService.outbox.OutboxService;
+import com.demo.orderProcessingService.outbox.OutboxTenantScheduler;
+import com.demo.orderProcessingService.outbox.OutboxTenantStatus;
+import com.demo.orderProcessingService.outbox.OutboxWorkerPool;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/outbox")
+public class OutboxAdminController {
+  private final OutboxService outboxService;
+  private final OutboxRetentionService retentionService;
+  private final OutboxTenantScheduler tenantScheduler;
+  private final ObjectProvider<OutboxWorkerPool> workerPool;
+
+  public OutboxAdminController(
+      OutboxService outboxService,
+      OutboxRetentionService retentionService,
+      OutboxTenantScheduler tenantScheduler,
+      ObjectProvider<OutboxWorkerPool> workerPool) {
+    this.outboxService = outboxService;
+    this.retentionService = retentionService;
+    this.tenantScheduler = tenantScheduler;
+    this.workerPool = workerPool;
+  }
+
+  /** Per-tenant backlog, in-flight work and throughput, with each tenant's scheduling settings. */
+  @GetMapping("/tenants")
+  public List<OutboxTenantStatus> tenants() {
+    OutboxWorkerPool pool = workerPool.getIfAvailable();
+    return tenantScheduler.status(pool != null ? pool.inFlightByTenant() : Map.of());
+  }
+
+  /** Events that ran out of attempts, longest dead first, optionally of one tenant. */
+  @GetMapping("/dead-letters")
+  public List<OutboxEvent> deadLetters(
+      @RequestParam(required = false) String tenantId,
+      @RequestParam(defaultValue = "100") int limit) {
+    return outboxService.findDeadLetters(tenantId, Math.min(Math.max(limit, 1), 1000));
+  }
+
+  /**
+   * Puts dead-lettered events back to PENDING with a fresh attempt budget: the given ids, or else
+   * the oldest {@code limit}, optionally of one tenant.
+   */
+  @PostMapping("/dead-letters/requeue")
+  public Map<String, List<Long>> requeueDeadLetters(
+      @RequestParam(required = false) List<Long> ids,
+      @RequestParam(required = false) String tenantId,
+      @RequestParam(defaultValue = "1000") int limit) {
+    return Map.of(
+        "requeued",
+        outboxService.requeueDeadLetters(ids, tenantId, Math.min(Math.max(limit, 1), 10000)));
+  }
+
+  @GetMapping("/archive/{id}")
+  public ResponseEntity<?> archived(@PathVariable Long id) {
+    return retentionService
+        .findArchived(id)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  /** Archived events created in {@code [from, to)} (ISO-8601 instants), oldest first. */
+  @GetMapping(value = "/archive", params = "from")
+  public List<OutboxEventArchive> archived(
+      @RequestParam Instant from,
+      @RequestParam Instant to,
+      @RequestParam(defaultValue = "100") int limit) {
+    return retentionService.findArchived(from, to, Math.min(Math.max(limit, 1), 1000));
+  }
+
+  @GetMapping(value = "/archive", params = "aggregateId")
+  public List<OutboxEventArchive> archivedForAggregate(@RequestParam String aggregateId) {
+    return retentionService.findArchivedByAggregate(aggregateId);
+  }
+
+  /** Runs one retention pass now instead of waiting for the schedule. */
+  @PostMapping("/retention/run")
+  public Map<String, Long> runRetention() {
+    return Map.of("archived", retentionService.archiveExpired());
+  }
+}
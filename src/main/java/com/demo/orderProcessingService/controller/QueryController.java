@@ -1,16 +1,34 @@
 package com.demo.orderProcessingService.controller;
 
+import com.demo.orderProcessingService.domain.OrderEntity;
 import com.demo.orderProcessingService.queries.OrderQueryHandler;
+import com.demo.orderProcessingService.queries.OrderStatusWaiters;
+import com.demo.orderProcessingService.queries.TenantOrderStats;
+import com.demo.orderProcessingService.queries.TenantOrderTotals;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 public class QueryController {
+  // open end of a listing range; well inside what SQL timestamps can hold
+  private static final Instant OPEN_END = Instant.parse("9999-01-01T00:00:00Z");
+
   private final OrderQueryHandler queryHandler;
+  private final OrderStatusWaiters statusWaiters;
+  private final TenantOrderStats tenantStats;
 
-  public QueryController(OrderQueryHandler queryHandler) {
+  public QueryController(
+      OrderQueryHandler queryHandler,
+      OrderStatusWaiters statusWaiters,
+      TenantOrderStats tenantStats) {
     this.queryHandler = queryHandler;
+    this.statusWaiters = statusWaiters;
+    this.tenantStats = tenantStats;
   }
 
   @GetMapping("/{id}")
@@ -20,4 +38,66 @@ public class QueryController {
         .map(ResponseEntity::ok)
         .orElseGet(() -> ResponseEntity.notFound().build());
   }
+
+  /** Count and total amount of a tenant's orders per status, kept up to date incrementally. */
+  @GetMapping("/stats/{tenantId}")
+  public ResponseEntity<TenantOrderTotals> stats(@PathVariable String tenantId) {
+    return tenantStats
+        .get(tenantId)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  @GetMapping("/stats")
+  public List<TenantOrderTotals> stats() {
+    return tenantStats.all();
+  }
+
+  /**
+   * Orders of one tenant and status created in {@code [from, to)} (ISO-8601 instants), oldest
+   * first. Follow {@code nextCursor} for further pages.
+   */
+  @GetMapping(params = "tenantId")
+  public ResponseEntity<?> list(
+      @RequestParam String tenantId,
+      @RequestParam OrderEntity.OrderStatus status,
+      @RequestParam(required = false) Instant from,
+      @RequestParam(required = false) Instant to,
+      @RequestParam(defaultValue = "100") int limit,
+      @RequestParam(required = false) String cursor) {
+    try {
+      return ResponseEntity.ok(
+          queryHandler.list(
+              tenantId,
+              status,
+              from != null ? from : Instant.EPOCH,
+              to != null ? to : OPEN_END,
+              Math.min(Math.max(limit, 1), 1000),
+              cursor));
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+  }
+
+  /**
+   * Long-poll: responds as soon as the order is PROCESSED/FAILED, or with its current state once
+   * {@code timeout} seconds pass.
+   */
+  @GetMapping(value = "/{id}", params = "waitFor")
+  public DeferredResult<ResponseEntity<?>> waitFor(
+      @PathVariable String id,
+      @RequestParam String waitFor,
+      @RequestParam(defaultValue = "30") long timeout) {
+    if (!"terminal".equals(waitFor)) {
+      DeferredResult<ResponseEntity<?>> bad = new DeferredResult<>();
+      bad.setResult(ResponseEntity.badRequest().body("{\"error\":\"waitFor must be terminal\"}"));
+      return bad;
+    }
+    if (timeout < 1) {
+      DeferredResult<ResponseEntity<?>> bad = new DeferredResult<>();
+      bad.setResult(ResponseEntity.badRequest().body("{\"error\":\"timeout must be positive\"}"));
+      return bad;
+    }
+    return statusWaiters.awaitTerminal(id, timeout);
+  }
 }
@@ -0,0 +1,26 @@
+package com.demo.orderProcessingService.controller;
+
+import com.demo.orderProcessingService.validation.ValidatorRegistry;
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/tenant-rules")
+public class TenantRulesAdminController {
+  private final ValidatorRegistry validatorRegistry;
+
+  public TenantRulesAdminController(ValidatorRegistry validatorRegistry) {
+    this.validatorRegistry = validatorRegistry;
+  }
+
+  /** Recompiles the rules file now; on a bad rule the previous rules stay in force. */
+  @PostMapping("/reload")
+  public ResponseEntity<?> reload() {
+    try {
+      return ResponseEntity.ok(Map.of("rules", validatorRegistry.reload()));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.demo.orderProcessingService.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.*;
+
+/**
+ * The order created for a client's {@code Idempotency-Key}. Keys are scoped to the tenant, and the
+ * unique index is what decides between two concurrent requests carrying the same key.
+ */
+@Entity
+@Table(
+    name = "idempotency_keys",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_idempotency_tenant_key",
+            columnNames = {"tenant_id", "idempotency_key"}),
+    indexes = @Index(name = "idx_idempotency_expires", columnList = "expires_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+  @SequenceGenerator(
+      name = "idempotency_keys_seq",
+      sequenceName = "idempotency_keys_seq",
+      allocationSize = 50)
+  private Long id;
+
+  @Column(nullable = false, length = 64)
+  private String tenantId;
+
+  @Column(name = "idempotency_key", nullable = false, length = 255)
+  private String key;
+
+  @Column(nullable = false)
+  private String orderId;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  @Column(nullable = false)
+  private Instant expiresAt;
+}
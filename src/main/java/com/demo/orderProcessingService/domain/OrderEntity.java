@@ -1,16 +1,25 @@
 package com.demo.orderProcessingService.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import java.time.Instant;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 @Entity
-@Table(name = "orders")
+@Table(
+    name = "orders",
+    // keyset listing: equality on tenant and status, then (created_at, id) in order
+    indexes =
+        @Index(
+            name = "idx_orders_tenant_status_created",
+            columnList = "tenant_id, status, created_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class OrderEntity {
+public class OrderEntity implements Persistable<String> {
   @Id private String id;
 
   @Column(nullable = false)
@@ -26,6 +35,41 @@ public class OrderEntity {
   @Column(nullable = false)
   private OrderStatus status;
 
+  private Instant createdAt;
+
+  // last status change; bulk status writes set it directly
+  private Instant updatedAt;
+
+  // ids are assigned, so without this save() would merge (SELECT first) instead of persist
+  @Transient
+  @Builder.Default
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private boolean newEntity = true;
+
+  @Override
+  @JsonIgnore
+  public boolean isNew() {
+    return newEntity;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markNotNew() {
+    newEntity = false;
+  }
+
+  @PrePersist
+  void defaultTimestamps() {
+    if (createdAt == null) createdAt = Instant.now();
+    if (updatedAt == null) updatedAt = createdAt;
+  }
+
+  @PreUpdate
+  void touch() {
+    updatedAt = Instant.now();
+  }
+
   public enum OrderStatus {
     PENDING,
     PROCESSED,
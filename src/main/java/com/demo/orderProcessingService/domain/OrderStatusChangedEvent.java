@@ -0,0 +1,12 @@
+package com.demo.orderProcessingService.domain;
+
+/**
+ * Published inside the transaction that changes an order's status; read-side listeners react to it
+ * after commit so they never observe a status that could still roll back.
+ */
+public record OrderStatusChangedEvent(
+    String orderId,
+    String tenantId,
+    double amount,
+    OrderEntity.OrderStatus from,
+    OrderEntity.OrderStatus to) {}
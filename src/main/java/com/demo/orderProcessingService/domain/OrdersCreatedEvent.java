@@ -0,0 +1,7 @@
+package com.demo.orderProcessingService.domain;
+
+/**
+ * Published inside the transaction that inserts new PENDING orders, once per tenant, with how many
+ * and their total amount.
+ */
+public record OrdersCreatedEvent(String tenantId, long count, double amount) {}
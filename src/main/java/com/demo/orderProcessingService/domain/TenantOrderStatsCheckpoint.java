@@ -0,0 +1,47 @@
+package com.demo.orderProcessingService.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import lombok.*;
+
+/**
+ * Checkpointed per-tenant order totals for one status, maintained by {@code TenantOrderStats}. Rows
+ * are only ever adjusted by deltas, so several instances can checkpoint into the same table.
+ */
+@Entity
+@Table(name = "tenant_order_stats")
+@IdClass(TenantOrderStatsCheckpoint.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TenantOrderStatsCheckpoint {
+  @Id
+  @Column(length = 64)
+  private String tenantId;
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(length = 16)
+  private OrderEntity.OrderStatus status;
+
+  @Column(nullable = false)
+  private long orderCount;
+
+  @Column(nullable = false)
+  private double amountSum;
+
+  private Instant updatedAt;
+
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  public static class Key implements Serializable {
+    private String tenantId;
+    private OrderEntity.OrderStatus status;
+  }
+}
@@ -0,0 +1,243 @@
+package com.demo.orderProcessingService.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link OutboxPublisher} that appends events to a local log, one JSON line per event, so they can
+ * be consumed without a broker. The log is a directory of segments named after the offset of their
+ * first event ({@code 00000000000000000000.log}); a new segment starts once the current one would
+ * grow past {@code segment-bytes}. A single writer thread appends every batch queued since its last
+ * write, forces them to disk once ({@code fsync}) and only then completes their futures. A write
+ * that fails is rolled back to where it started (segments it opened are removed, the one it began
+ * in is truncated) before the batches are failed, so a retry does not leave a partial line or skip
+ * offsets. On start a partly written last line left by a crash is cut off and offsets continue from
+ * there.
+ */
+@Component
+@ConditionalOnExpression(
+    "${outbox.publisher.enabled:false} and '${outbox.publisher.transport:file-log}' == 'file-log'")
+public class FileLogPublisher implements OutboxPublisher, SmartLifecycle {
+  private static final Logger log = LoggerFactory.getLogger(FileLogPublisher.class);
+  private static final String SUFFIX = ".log";
+
+  /** One line of the log. */
+  record Entry(long offset, OutboxMessage event) {}
+
+  private final ObjectMapper objectMapper;
+  private final Path directory;
+  private final long segmentBytes;
+  private final boolean fsync;
+  private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+  private volatile boolean running;
+  private Thread writer;
+  // owned by the writer thread once started
+  private FileChannel segment;
+  private Path segmentPath;
+  private long segmentSize;
+  private long nextOffset;
+
+  public FileLogPublisher(
+      ObjectMapper objectMapper,
+      @Value("${outbox.publisher.file-log.directory:outbox-log}") String directory,
+      @Value("${outbox.publisher.file-log.segment-bytes:67108864}") long segmentBytes,
+      @Value("${outbox.publisher.file-log.fsync:true}") boolean fsync) {
+    this.objectMapper = objectMapper;
+    this.directory = Path.of(directory);
+    this.segmentBytes = Math.max(1, segmentBytes);
+    this.fsync = fsync;
+  }
+
+  @Override
+  public CompletableFuture<Void> publish(List<OutboxMessage> batch) {
+    Pending pending = new Pending(batch);
+    if (!running) {
+      pending.acked.completeExceptionally(new IllegalStateException("file log is closed"));
+    } else {
+      queue.add(pending);
+    }
+    return pending.acked;
+  }
+
+  /** Starts before and stops after {@link OutboxPublisherStage}. */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4098;
+  }
+
+  @Override
+  public void start() {
+    try {
+      Files.createDirectories(directory);
+      openLastSegment();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open the outbox log in " + directory, e);
+    }
+    running = true;
+    writer = new Thread(this::run, "outbox-file-log");
+    writer.setDaemon(true);
+    writer.start();
+    log.info("Appending outbox events to {} from offset {}", directory, nextOffset);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) return;
+    running = false;
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(30));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    Pending left;
+    while ((left = queue.poll()) != null) {
+      left.acked.completeExceptionally(new IllegalStateException("file log is closed"));
+    }
+    try {
+      segment.close();
+    } catch (IOException e) {
+      log.warn("Could not close the outbox log segment: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    List<Pending> drained = new ArrayList<>();
+    // keep writing after stop() until the queue is empty
+    while (running || !queue.isEmpty()) {
+      try {
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+        drained.add(first);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      queue.drainTo(drained);
+      Path startPath = segmentPath;
+      long startSize = segmentSize;
+      long startOffset = nextOffset;
+      try {
+        for (Pending p : drained) append(p.batch);
+        if (fsync) segment.force(false);
+        drained.forEach(p -> p.acked.complete(null));
+      } catch (IOException | RuntimeException ex) {
+        log.warn("Could not append to the outbox log: {}", ex.getMessage());
+        rewind(startPath, startSize, startOffset);
+        drained.forEach(p -> p.acked.completeExceptionally(ex));
+      }
+      drained.clear();
+    }
+  }
+
+  private void append(List<OutboxMessage> batch) throws IOException {
+    for (OutboxMessage event : batch) {
+      byte[] json = objectMapper.writeValueAsBytes(new Entry(nextOffset, event));
+      ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+      if (segmentSize > 0 && segmentSize + line.remaining() > segmentBytes) roll();
+      while (line.hasRemaining()) segmentSize += segment.write(line);
+      nextOffset++;
+    }
+  }
+
+  private void roll() throws IOException {
+    if (segment != null) {
+      segment.force(false);
+      segment.close();
+    }
+    segmentPath = directory.resolve(String.format("%020d%s", nextOffset, SUFFIX));
+    segment =
+        FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    segmentSize = 0;
+  }
+
+  /**
+   * Undoes a failed write: drops segments rolled after {@code path} and cuts {@code path} back to
+   * {@code size}. If even that fails the log stops taking batches; a restart trims it again.
+   */
+  private void rewind(Path path, long size, long offset) {
+    try {
+      if (segment.isOpen()) segment.close();
+      try (Stream<Path> files = Files.list(directory)) {
+        List<Path> rolled =
+            files.filter(f -> f.toString().endsWith(SUFFIX) && f.compareTo(path) > 0).toList();
+        for (Path f : rolled) Files.delete(f);
+      }
+      segment = FileChannel.open(path, StandardOpenOption.WRITE);
+      segment.truncate(size);
+      segment.position(size);
+      segmentPath = path;
+      segmentSize = size;
+      nextOffset = offset;
+    } catch (IOException | RuntimeException ex) {
+      log.error("Could not roll back the outbox log, no longer appending to it", ex);
+      running = false;
+    }
+  }
+
+  private void openLastSegment() throws IOException {
+    Path last;
+    try (Stream<Path> files = Files.list(directory)) {
+      last =
+          files
+              .filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+              .max(Path::compareTo)
+              .orElse(null);
+    }
+    if (last == null) {
+      nextOffset = 0;
+      roll();
+      return;
+    }
+    String name = last.getFileName().toString();
+    long base = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    byte[] content = Files.readAllBytes(last);
+    int complete = content.length;
+    while (complete > 0 && content[complete - 1] != '\n') complete--;
+    long lines = 0;
+    for (int i = 0; i < complete; i++) if (content[i] == '\n') lines++;
+
+    segment = FileChannel.open(last, StandardOpenOption.WRITE);
+    segmentPath = last;
+    if (complete < content.length) {
+      log.warn("Dropping {} bytes of a partial event in {}", content.length - complete, last);
+      segment.truncate(complete);
+    }
+    segment.position(complete);
+    segmentSize = complete;
+    nextOffset = base + lines;
+  }
+
+  private static final class Pending {
+    final List<OutboxMessage> batch;
+    final CompletableFuture<Void> acked = new CompletableFuture<>();
+
+    Pending(List<OutboxMessage> batch) {
+      this.batch = batch;
+    }
+  }
+}
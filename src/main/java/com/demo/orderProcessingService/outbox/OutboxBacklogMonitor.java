@@ -0,0 +1,199 @@
+package com.demo.orderProcessingService.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a per-tenant snapshot of the outbox backlog: PENDING and IN_PROGRESS depth and when the
+ * longest-waiting due PENDING event became due ({@code next_attempt_at}). Events still backing off
+ * before a retry are counted but do not age the backlog, and a requeued dead letter ages from its
+ * requeue rather than its creation. One grouped query over {@code idx_outbox_status_tenant} per
+ * refresh feeds the gauges, so scrapes and readers never touch the database.
+ */
+@Component
+public class OutboxBacklogMonitor {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxBacklogMonitor.class);
+
+  /**
+   * Backlog of one tenant; {@code oldestPending} is when its longest-waiting due event became due,
+   * null when nothing pending is due.
+   */
+  public record TenantBacklog(
+      String tenantId, long pending, long inProgress, Instant oldestPending) {
+
+    /** How long the oldest due pending event has waited at {@code now}, zero when none is due. */
+    public Duration oldestPendingAge(Instant now) {
+      return oldestPending == null ? Duration.ZERO : Duration.between(oldestPending, now);
+    }
+  }
+
+  private final JdbcTemplate jdbc;
+  private final OutboxMetrics metrics;
+  private final MultiGauge depth;
+  private final MultiGauge oldestAge;
+  // held across the query; a monitor would pin a virtual scheduler thread while it blocks
+  private final ReentrantLock refreshLock = new ReentrantLock();
+
+  private volatile Map<String, TenantBacklog> snapshot = Map.of();
+  private volatile Instant refreshedAt;
+  private volatile Map<String, Double> throughput = Map.of();
+  private Map<String, Double> lastFinished = Map.of();
+  private long lastRefreshNanos = System.nanoTime();
+
+  public OutboxBacklogMonitor(JdbcTemplate jdbc, OutboxMetrics metrics, MeterRegistry registry) {
+    this.jdbc = jdbc;
+    this.metrics = metrics;
+    this.depth =
+        MultiGauge.builder("outbox.events.depth")
+            .description("Outbox events waiting or being processed")
+            .register(registry);
+    this.oldestAge =
+        MultiGauge.builder("outbox.events.oldest.pending.age")
+            .description("How long the oldest due PENDING outbox event has waited")
+            .baseUnit("seconds")
+            .register(registry);
+  }
+
+  /** The latest snapshot, keyed by tenant id ({@code unknown} for rows without one). */
+  public Map<String, TenantBacklog> snapshot() {
+    return snapshot;
+  }
+
+  /**
+   * When the latest snapshot was taken, or null before the first refresh; until then {@link
+   * #snapshot} is empty because nothing is known yet, not because nothing is queued.
+   */
+  public Instant refreshedAt() {
+    return refreshedAt;
+  }
+
+  /** PENDING events over all tenants in the latest snapshot. */
+  public long totalPending() {
+    long total = 0;
+    for (TenantBacklog backlog : snapshot.values()) total += backlog.pending();
+    return total;
+  }
+
+  /** Events finished per second on this node, per tenant, between the last two refreshes. */
+  public Map<String, Double> throughput() {
+    return throughput;
+  }
+
+  @Scheduled(
+      fixedDelayString = "${outbox.metrics.backlog-refresh-ms:5000}",
+      initialDelayString = "${outbox.metrics.backlog-refresh-ms:5000}")
+  public void scheduledRefresh() {
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      log.warn("Could not refresh outbox backlog: {}", e.getMessage());
+    }
+  }
+
+  public Map<String, TenantBacklog> refresh() {
+    refreshLock.lock();
+    try {
+      return query();
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  private Map<String, TenantBacklog> query() {
+    Map<String, long[]> counts = new HashMap<>();
+    Map<String, Instant> oldest = new HashMap<>();
+    Timestamp now = Timestamp.from(Instant.now());
+    jdbc.query(
+        "select tenant_id, status, count(*),"
+            + " min(case when next_attempt_at <= ? then next_attempt_at end) from outbox_events"
+            + " where status in (?, ?) group by tenant_id, status",
+        rs -> {
+          String tenant = rs.getString(1);
+          if (tenant == null) tenant = OutboxMetrics.UNKNOWN_TENANT;
+          boolean pending = OutboxEvent.Status.PENDING.name().equals(rs.getString(2));
+          counts.computeIfAbsent(tenant, t -> new long[2])[pending ? 0 : 1] = rs.getLong(3);
+          Timestamp min = rs.getTimestamp(4);
+          if (pending && min != null) oldest.put(tenant, min.toInstant());
+        },
+        now,
+        OutboxEvent.Status.PENDING.name(),
+        OutboxEvent.Status.IN_PROGRESS.name());
+
+    Map<String, TenantBacklog> next = new HashMap<>(counts.size() * 2);
+    counts.forEach(
+        (tenant, c) -> next.put(tenant, new TenantBacklog(tenant, c[0], c[1], oldest.get(tenant))));
+    snapshot = Map.copyOf(next);
+    refreshedAt = now.toInstant();
+    publish(next);
+    updateThroughput();
+    return snapshot;
+  }
+
+  private void updateThroughput() {
+    long now = System.nanoTime();
+    double seconds = (now - lastRefreshNanos) / 1e9;
+    Map<String, Double> finished = metrics.finishedTotals();
+    Map<String, Double> rates = new HashMap<>(finished.size() * 2);
+    if (seconds > 0) {
+      Map<String, Double> previous = lastFinished;
+      finished.forEach(
+          (tenant, total) ->
+              rates.put(tenant, (total - previous.getOrDefault(tenant, 0.0)) / seconds));
+    }
+    throughput = Map.copyOf(rates);
+    lastFinished = finished;
+    lastRefreshNanos = now;
+  }
+
+  private void publish(Map<String, TenantBacklog> backlog) {
+    // tenants past the series cap are folded into one "other" row
+    Map<String, TenantBacklog> byTag = new HashMap<>(backlog.size() * 2);
+    for (TenantBacklog b : backlog.values()) {
+      String tag = metrics.tenantTag(b.tenantId(), byTag);
+      byTag.merge(
+          tag,
+          new TenantBacklog(tag, b.pending(), b.inProgress(), b.oldestPending()),
+          OutboxBacklogMonitor::combine);
+    }
+
+    List<MultiGauge.Row<?>> depthRows = new ArrayList<>(byTag.size() * 2);
+    List<MultiGauge.Row<?>> ageRows = new ArrayList<>(byTag.size());
+    for (TenantBacklog b : byTag.values()) {
+      String tag = b.tenantId();
+      depthRows.add(MultiGauge.Row.of(Tags.of("tenant", tag, "status", "PENDING"), b.pending()));
+      depthRows.add(
+          MultiGauge.Row.of(Tags.of("tenant", tag, "status", "IN_PROGRESS"), b.inProgress()));
+      ageRows.add(
+          MultiGauge.Row.of(
+              Tags.of("tenant", tag), b, x -> x.oldestPendingAge(Instant.now()).toMillis() / 1e3));
+    }
+    depth.register(depthRows, true);
+    oldestAge.register(ageRows, true);
+  }
+
+  private static TenantBacklog combine(TenantBacklog a, TenantBacklog b) {
+    Instant oldest =
+        a.oldestPending() == null
+            ? b.oldestPending()
+            : b.oldestPending() == null || a.oldestPending().isBefore(b.oldestPending())
+                ? a.oldestPending()
+                : b.oldestPending();
+    return new TenantBacklog(
+        a.tenantId(), a.pending() + b.pending(), a.inProgress() + b.inProgress(), oldest);
+  }
+}
@@ -0,0 +1,40 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/** Bulk status writes for outbox events, issued as a single JDBC batch. */
+public interface OutboxBatchRepository {
+
+  /** A failed attempt: back to PENDING until {@code nextAttemptAt}, or DEAD_LETTER. */
+  record Retry(Long id, OutboxEvent.Status status, Instant nextAttemptAt, String error) {}
+
+  /**
+   * Sets each event to its mapped status and ends its claim; events no longer claimed by {@code
+   * owner} are left alone. Returns the number of rows updated.
+   */
+  int updateStatuses(Map<Long, OutboxEvent.Status> statuses, String owner, Instant now);
+
+  /** Ends the claims of failed attempts as described by each {@link Retry}. */
+  int scheduleRetries(List<Retry> retries, String owner, Instant now);
+
+  /**
+   * Moves up to {@code limit} DEAD_LETTER events back to PENDING with a fresh attempt budget,
+   * oldest first, optionally only the given ids and/or one tenant. Returns the requeued ids.
+   */
+  List<Long> requeueDeadLetters(Collection<Long> ids, String tenantId, int limit, Instant now);
+
+  /**
+   * Records that the publisher's transport acknowledged these events and ends their publish claim,
+   * whichever node holds it by now.
+   */
+  int markPublished(Collection<Long> ids, Instant now);
+
+  /**
+   * Marks up to {@code limit} PROCESSED events last updated before {@code processedBefore} as
+   * published without sending them, oldest first; returns the number marked.
+   */
+  int skipUnpublished(Instant processedBefore, int limit, Instant now);
+}
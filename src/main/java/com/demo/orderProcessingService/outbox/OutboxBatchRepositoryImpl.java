@@ -0,0 +1,116 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class OutboxBatchRepositoryImpl implements OutboxBatchRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbc;
+
+  public OutboxBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedJdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+  }
+
+  @Override
+  public int updateStatuses(Map<Long, OutboxEvent.Status> statuses, String owner, Instant now) {
+    if (statuses.isEmpty()) return 0;
+    Timestamp ts = Timestamp.from(now);
+    List<Object[]> args = new ArrayList<>(statuses.size());
+    statuses.forEach((id, status) -> args.add(new Object[] {status.name(), ts, id, owner}));
+    return sum(
+        jdbcTemplate.batchUpdate(
+            "update outbox_events set status = ?, updated_at = ?, claimed_by = null,"
+                + " lease_expires_at = null where id = ? and claimed_by = ?",
+            args));
+  }
+
+  @Override
+  public int scheduleRetries(List<Retry> retries, String owner, Instant now) {
+    if (retries.isEmpty()) return 0;
+    Timestamp ts = Timestamp.from(now);
+    List<Object[]> args = new ArrayList<>(retries.size());
+    for (Retry r : retries) {
+      String error = r.error();
+      if (error != null && error.length() > 1000) error = error.substring(0, 1000);
+      args.add(
+          new Object[] {
+            r.status().name(), Timestamp.from(r.nextAttemptAt()), error, ts, r.id(), owner
+          });
+    }
+    return sum(
+        jdbcTemplate.batchUpdate(
+            "update outbox_events set status = ?, next_attempt_at = ?, last_error = ?,"
+                + " updated_at = ?, claimed_by = null, lease_expires_at = null,"
+                + " processing_started_at = null where id = ? and claimed_by = ?",
+            args));
+  }
+
+  @Override
+  public List<Long> requeueDeadLetters(
+      Collection<Long> ids, String tenantId, int limit, Instant now) {
+    Map<String, Object> params = new HashMap<>();
+    params.put("dead", OutboxEvent.Status.DEAD_LETTER.name());
+    params.put("pending", OutboxEvent.Status.PENDING.name());
+    params.put("limit", limit);
+    params.put("ts", Timestamp.from(now));
+    // walks idx_outbox_status_updated
+    StringBuilder select = new StringBuilder("select id from outbox_events where status = :dead");
+    if (ids != null && !ids.isEmpty()) {
+      select.append(" and id in (:ids)");
+      params.put("ids", ids);
+    }
+    if (tenantId != null) {
+      select.append(" and tenant_id = :tenant");
+      params.put("tenant", tenantId);
+    }
+    select.append(" order by updated_at, id limit :limit");
+
+    List<Long> selected = namedJdbc.queryForList(select.toString(), params, Long.class);
+    if (selected.isEmpty()) return selected;
+    params.put("selected", selected);
+    namedJdbc.update(
+        "update outbox_events set status = :pending, attempts = 0, next_attempt_at = :ts,"
+            + " updated_at = :ts where id in (:selected) and status = :dead",
+        params);
+    return selected;
+  }
+
+  @Override
+  public int markPublished(Collection<Long> ids, Instant now) {
+    if (ids.isEmpty()) return 0;
+    return namedJdbc.update(
+        "update outbox_events set published_at = :now, publish_claimed_by = null,"
+            + " publish_lease_expires_at = null where id in (:ids) and published_at is null",
+        Map.of("ids", ids, "now", Timestamp.from(now)));
+  }
+
+  @Override
+  public int skipUnpublished(Instant processedBefore, int limit, Instant now) {
+    // walks idx_outbox_status_updated
+    List<Long> ids =
+        jdbcTemplate.queryForList(
+            "select id from outbox_events where status = ? and updated_at < ?"
+                + " and published_at is null order by updated_at, id limit ?",
+            Long.class,
+            OutboxEvent.Status.PROCESSED.name(),
+            Timestamp.from(processedBefore),
+            limit);
+    return markPublished(ids, now);
+  }
+
+  private static int sum(int[] counts) {
+    int total = 0;
+    // drivers may report SUCCESS_NO_INFO (-2) for batched statements
+    for (int c : counts) total += c < 0 ? 1 : c;
+    return total;
+  }
+}
@@ -0,0 +1,68 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/** Set-based, lease-based claiming of outbox events, implemented with plain JDBC. */
+public interface OutboxClaimRepository {
+
+  /**
+   * Moves up to {@code limit} PENDING events that are due at {@code now}, earliest due first, to
+   * IN_PROGRESS owned by {@code owner} until {@code leaseExpiresAt}, counts the attempt and returns
+   * the ids that were claimed. Must run inside a transaction; the cost is bounded by {@code limit},
+   * not by the size of the backlog.
+   */
+  List<Long> claimPending(int limit, String owner, Instant now, Instant leaseExpiresAt);
+
+  /**
+   * Like {@link #claimPending} but only for one tenant ({@code null} for events without one),
+   * walking {@code idx_outbox_status_tenant}.
+   */
+  List<Long> claimPendingForTenant(
+      String tenantId, int limit, String owner, Instant now, Instant leaseExpiresAt);
+
+  /**
+   * Claims one PENDING event that is due; returns false if it was not PENDING any more or is still
+   * waiting out a retry backoff.
+   */
+  boolean claimEvent(Long id, String owner, Instant now, Instant leaseExpiresAt);
+
+  /**
+   * Extends the lease of the events still owned by {@code owner} and returns their ids. Inside a
+   * processing transaction this also row-locks them, so no sweeper can take them back until it
+   * commits. Claims without an owner (taken before ownership was recorded) are adopted.
+   */
+  List<Long> renewLeases(List<Long> ids, String owner, Instant leaseExpiresAt);
+
+  /**
+   * Hands events owned by {@code owner} that never started back to PENDING so another poll can
+   * claim them again; the claim is not counted as an attempt.
+   */
+  int releaseClaims(List<Long> ids, String owner, Instant now);
+
+  /**
+   * Hands every claim whose lease ended before {@code now} back to PENDING in one statement over
+   * {@code idx_outbox_status_lease}, plus owner-less claims started before {@code legacyCutoff}.
+   * Events that already had {@code maxAttempts} attempts are left to {@link
+   * #deadLetterExpiredLeases}.
+   */
+  int releaseExpiredLeases(Instant now, Instant legacyCutoff, int maxAttempts);
+
+  /**
+   * Moves expired claims (as in {@link #releaseExpiredLeases}) that already had {@code maxAttempts}
+   * attempts to DEAD_LETTER; returns their ids.
+   */
+  List<Long> deadLetterExpiredLeases(Instant now, Instant legacyCutoff, int maxAttempts);
+
+  /**
+   * Claims up to {@code limit} PROCESSED events with an id above {@code afterId} that are not yet
+   * published and not being sent by another node, in id order, for {@code owner} to send until
+   * {@code leaseExpiresAt}. Must run inside a transaction; walks {@code idx_outbox_unpublished}.
+   */
+  List<OutboxMessage> claimUnpublished(
+      long afterId, int limit, String owner, Instant now, Instant leaseExpiresAt);
+
+  /** Gives up the publish claims {@code owner} holds on these events, e.g. after a failed send. */
+  int releasePublishClaims(Collection<Long> ids, String owner);
+}
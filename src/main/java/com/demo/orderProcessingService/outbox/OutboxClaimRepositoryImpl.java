@@ -0,0 +1,300 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class OutboxClaimRepositoryImpl implements OutboxClaimRepository {
+
+  private static final String PENDING = OutboxEvent.Status.PENDING.name();
+  private static final String IN_PROGRESS = OutboxEvent.Status.IN_PROGRESS.name();
+  private static final String PROCESSED = OutboxEvent.Status.PROCESSED.name();
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final String selectPendingSql;
+  private final String selectTenantPendingSql;
+  private final String selectTenantlessPendingSql;
+  private final String selectUnpublishedSql;
+  private final String lock;
+
+  public OutboxClaimRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+    // Walks idx_outbox_status_due; SKIP LOCKED lets concurrent claimers take disjoint rows
+    // instead of queueing behind each other's row locks.
+    this.lock = " for update" + (supportsSkipLocked(jdbcTemplate) ? " skip locked" : "");
+    // Only events that are due: retries wait out their backoff without being scanned, because
+    // the range on next_attempt_at is part of the index (idx_outbox_status_due)
+    this.selectPendingSql =
+        "select id from outbox_events where status = :status and next_attempt_at <= :now"
+            + " order by next_attempt_at, id limit :limit"
+            + lock;
+    // idx_outbox_status_tenant_due
+    this.selectTenantPendingSql =
+        "select id from outbox_events where status = :status and tenant_id = :tenant"
+            + " and next_attempt_at <= :now order by next_attempt_at, id limit :limit"
+            + lock;
+    this.selectTenantlessPendingSql =
+        "select id from outbox_events where status = :status and tenant_id is null"
+            + " and next_attempt_at <= :now order by next_attempt_at, id limit :limit"
+            + lock;
+    // idx_outbox_unpublished; rows another node is sending are passed over until its lease ends
+    this.selectUnpublishedSql =
+        "select id from outbox_events where status = :status and published_at is null"
+            + " and id > :after and (publish_lease_expires_at is null"
+            + " or publish_lease_expires_at < :now) order by id limit :limit"
+            + lock;
+  }
+
+  @Override
+  public List<Long> claimPending(int limit, String owner, Instant now, Instant leaseExpiresAt) {
+    List<Long> ids =
+        jdbc.queryForList(
+            selectPendingSql,
+            Map.of("status", PENDING, "now", Timestamp.from(now), "limit", limit),
+            Long.class);
+    return claim(ids, owner, now, leaseExpiresAt);
+  }
+
+  @Override
+  public List<Long> claimPendingForTenant(
+      String tenantId, int limit, String owner, Instant now, Instant leaseExpiresAt) {
+    List<Long> ids =
+        tenantId == null
+            ? jdbc.queryForList(
+                selectTenantlessPendingSql,
+                Map.of("status", PENDING, "now", Timestamp.from(now), "limit", limit),
+                Long.class)
+            : jdbc.queryForList(
+                selectTenantPendingSql,
+                Map.of(
+                    "status", PENDING,
+                    "tenant", tenantId,
+                    "now", Timestamp.from(now),
+                    "limit", limit),
+                Long.class);
+    return claim(ids, owner, now, leaseExpiresAt);
+  }
+
+  private List<Long> claim(List<Long> ids, String owner, Instant now, Instant leaseExpiresAt) {
+    if (ids.isEmpty()) return ids;
+
+    Map<String, Object> params =
+        Map.of(
+            "claimed", IN_PROGRESS,
+            "pending", PENDING,
+            "owner", owner,
+            "ts", Timestamp.from(now),
+            "lease", Timestamp.from(leaseExpiresAt),
+            "ids", ids);
+    int updated =
+        jdbc.update(
+            "update outbox_events set status = :claimed, claimed_by = :owner,"
+                + " lease_expires_at = :lease, processing_started_at = :ts, updated_at = :ts,"
+                + " attempts = attempts + 1 where id in (:ids) and status = :pending",
+            params);
+    if (updated == ids.size()) return ids;
+
+    // Without SKIP LOCKED a concurrent claimer may have taken some of the rows we waited on.
+    return jdbc.queryForList(
+        "select id from outbox_events where id in (:ids) and status = :claimed"
+            + " and claimed_by = :owner and processing_started_at = :ts order by created_at, id",
+        params,
+        Long.class);
+  }
+
+  @Override
+  public boolean claimEvent(Long id, String owner, Instant now, Instant leaseExpiresAt) {
+    return jdbc.update(
+            "update outbox_events set status = :claimed, claimed_by = :owner,"
+                + " lease_expires_at = :lease, processing_started_at = :ts, updated_at = :ts,"
+                + " attempts = attempts + 1 where id = :id and status = :pending"
+                + " and next_attempt_at <= :ts",
+            Map.of(
+                "claimed", IN_PROGRESS,
+                "pending", PENDING,
+                "owner", owner,
+                "ts", Timestamp.from(now),
+                "lease", Timestamp.from(leaseExpiresAt),
+                "id", id))
+        > 0;
+  }
+
+  @Override
+  public List<Long> renewLeases(List<Long> ids, String owner, Instant leaseExpiresAt) {
+    if (ids.isEmpty()) return ids;
+    Map<String, Object> params =
+        Map.of(
+            "claimed", IN_PROGRESS,
+            "owner", owner,
+            "lease", Timestamp.from(leaseExpiresAt),
+            "ids", ids);
+    int updated =
+        jdbc.update(
+            "update outbox_events set claimed_by = :owner, lease_expires_at = :lease"
+                + " where id in (:ids) and status = :claimed"
+                + " and (claimed_by = :owner or claimed_by is null)",
+            params);
+    if (updated == ids.size()) return ids;
+    return jdbc.queryForList(
+        "select id from outbox_events where id in (:ids) and status = :claimed"
+            + " and claimed_by = :owner",
+        params,
+        Long.class);
+  }
+
+  @Override
+  public int releaseClaims(List<Long> ids, String owner, Instant now) {
+    if (ids.isEmpty()) return 0;
+    return jdbc.update(
+        // never started, so the claim does not count as an attempt
+        "update outbox_events set status = :pending, claimed_by = null, lease_expires_at = null,"
+            + " processing_started_at = null, updated_at = :ts, attempts = attempts - 1"
+            + " where id in (:ids) and status = :claimed and claimed_by = :owner",
+        Map.of(
+            "claimed", IN_PROGRESS,
+            "pending", PENDING,
+            "owner", owner,
+            "ts", Timestamp.from(now),
+            "ids", ids));
+  }
+
+  @Override
+  public int releaseExpiredLeases(Instant now, Instant legacyCutoff, int maxAttempts) {
+    Map<String, Object> params = expiredParams(now, legacyCutoff, maxAttempts);
+    String release =
+        "update outbox_events set status = :pending, claimed_by = null, lease_expires_at = null,"
+            + " processing_started_at = null, updated_at = :ts"
+            + " where status = :claimed and attempts < :max and ";
+    return jdbc.update(release + "lease_expires_at < :ts", params)
+        + jdbc.update(
+            release + "lease_expires_at is null and processing_started_at < :cutoff", params);
+  }
+
+  @Override
+  public List<Long> deadLetterExpiredLeases(Instant now, Instant legacyCutoff, int maxAttempts) {
+    Map<String, Object> params = expiredParams(now, legacyCutoff, maxAttempts);
+    // an event whose attempts keep dying with their node is dead lettered like any other failure
+    String expired =
+        " status = :claimed and attempts >= :max and (lease_expires_at < :ts"
+            + " or (lease_expires_at is null and processing_started_at < :cutoff))";
+    List<Long> ids =
+        jdbc.queryForList(
+            "select id from outbox_events where" + expired + " order by id" + lock,
+            params,
+            Long.class);
+    if (ids.isEmpty()) return ids;
+
+    Map<String, Object> dead = new HashMap<>(params);
+    dead.put("ids", ids);
+    int updated =
+        jdbc.update(
+            "update outbox_events set status = :dead, last_error = 'lease expired',"
+                + " claimed_by = null, lease_expires_at = null, processing_started_at = null,"
+                + " updated_at = :ts where id in (:ids) and"
+                + expired,
+            dead);
+    if (updated == ids.size()) return ids;
+
+    // Without SKIP LOCKED a concurrent sweeper may have taken some of the rows we waited on.
+    return jdbc.queryForList(
+        "select id from outbox_events where id in (:ids) and status = :dead"
+            + " and last_error = 'lease expired'",
+        dead,
+        Long.class);
+  }
+
+  private static Map<String, Object> expiredParams(
+      Instant now, Instant legacyCutoff, int maxAttempts) {
+    return Map.of(
+        "claimed",
+        IN_PROGRESS,
+        "pending",
+        PENDING,
+        "dead",
+        OutboxEvent.Status.DEAD_LETTER.name(),
+        "max",
+        maxAttempts,
+        "ts",
+        Timestamp.from(now),
+        "cutoff",
+        Timestamp.from(legacyCutoff));
+  }
+
+  @Override
+  public List<OutboxMessage> claimUnpublished(
+      long afterId, int limit, String owner, Instant now, Instant leaseExpiresAt) {
+    List<Long> ids =
+        jdbc.queryForList(
+            selectUnpublishedSql,
+            Map.of(
+                "status", PROCESSED,
+                "after", afterId,
+                "now", Timestamp.from(now),
+                "limit", limit),
+            Long.class);
+    if (ids.isEmpty()) return List.of();
+
+    Map<String, Object> params =
+        Map.of(
+            "owner",
+            owner,
+            "now",
+            Timestamp.from(now),
+            "lease",
+            Timestamp.from(leaseExpiresAt),
+            "ids",
+            ids);
+    int updated =
+        jdbc.update(
+            "update outbox_events set publish_claimed_by = :owner,"
+                + " publish_lease_expires_at = :lease where id in (:ids) and published_at is null"
+                + " and (publish_lease_expires_at is null or publish_lease_expires_at < :now)",
+            params);
+    // Without SKIP LOCKED another node may have claimed some of the rows we waited on.
+    String mine = updated == ids.size() ? "" : " and publish_claimed_by = :owner";
+    return jdbc.query(
+        "select id, event_type, aggregate_id, tenant_id, payload, created_at, updated_at"
+            + " from outbox_events where id in (:ids)"
+            + mine
+            + " order by id",
+        params,
+        (rs, i) ->
+            new OutboxMessage(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                instant(rs.getTimestamp(6)),
+                instant(rs.getTimestamp(7))));
+  }
+
+  @Override
+  public int releasePublishClaims(Collection<Long> ids, String owner) {
+    if (ids.isEmpty()) return 0;
+    return jdbc.update(
+        "update outbox_events set publish_claimed_by = null, publish_lease_expires_at = null"
+            + " where id in (:ids) and publish_claimed_by = :owner and published_at is null",
+        Map.of("owner", owner, "ids", ids));
+  }
+
+  private static Instant instant(Timestamp ts) {
+    return ts != null ? ts.toInstant() : null;
+  }
+
+  private static boolean supportsSkipLocked(JdbcTemplate jdbcTemplate) {
+    String product =
+        jdbcTemplate.execute(
+            (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+    if (product == null) return false;
+    String p = product.toLowerCase(Locale.ROOT);
+    return p.contains("postgres") || p.contains("mysql") || p.contains("oracle");
+  }
+}
@@ -0,0 +1,116 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-off migration for events written before {@code aggregate_id}/{@code tenant_id} existed:
+ * parses the order id out of the legacy payload once, and takes the tenant from the order. Runs in
+ * the background after startup, in id order and in small transactions; rows whose payload has no
+ * order id are skipped and left to the processing path to mark FAILED. Events left PENDING from
+ * before {@code next_attempt_at} existed are made due from their creation time, so the due-ordered
+ * claim picks them up.
+ */
+@Component
+public class OutboxColumnBackfill {
+  private static final Logger log = LoggerFactory.getLogger(OutboxColumnBackfill.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate tx;
+  private final boolean enabled;
+  private final int chunkSize;
+
+  public OutboxColumnBackfill(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate tx,
+      @Value("${outbox.backfill.enabled:true}") boolean enabled,
+      @Value("${outbox.backfill.chunk-size:1000}") int chunkSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.tx = tx;
+    this.enabled = enabled;
+    this.chunkSize = chunkSize;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onReady() {
+    if (!enabled) return;
+    Thread t = new Thread(this::run, "outbox-backfill");
+    t.setDaemon(true);
+    t.start();
+  }
+
+  /** Backfills every legacy row; returns the number of rows updated. */
+  public long run() {
+    return backfillAggregates() + backfillNextAttempts();
+  }
+
+  private long backfillAggregates() {
+    long lastId = Long.MIN_VALUE;
+    long total = 0;
+    while (true) {
+      List<Object[]> rows =
+          jdbcTemplate.query(
+              "select id, payload from outbox_events where aggregate_id is null and id > ?"
+                  + " order by id limit ?",
+              (rs, i) -> new Object[] {rs.getLong(1), rs.getString(2)},
+              lastId,
+              chunkSize);
+      if (rows.isEmpty()) break;
+      lastId = (Long) rows.get(rows.size() - 1)[0];
+
+      List<Object[]> args = new ArrayList<>(rows.size());
+      for (Object[] row : rows) {
+        String orderId = OutboxPayloads.extractOrderId((String) row[1]);
+        if (orderId != null) args.add(new Object[] {orderId, orderId, row[0]});
+      }
+      if (!args.isEmpty()) {
+        tx.executeWithoutResult(
+            status ->
+                jdbcTemplate.batchUpdate(
+                    "update outbox_events set aggregate_id = ?,"
+                        + " tenant_id = (select o.tenant_id from orders o where o.id = ?)"
+                        + " where id = ? and aggregate_id is null",
+                    args));
+        total += args.size();
+      }
+      if (rows.size() < chunkSize) break;
+    }
+    if (total > 0) log.info("Backfilled aggregate_id/tenant_id on {} outbox events", total);
+    return total;
+  }
+
+  private long backfillNextAttempts() {
+    long total = 0;
+    while (true) {
+      List<Long> ids =
+          jdbcTemplate.queryForList(
+              "select id from outbox_events where next_attempt_at is null and status = ?"
+                  + " order by id limit ?",
+              Long.class,
+              OutboxEvent.Status.PENDING.name(),
+              chunkSize);
+      if (ids.isEmpty()) break;
+      List<Object[]> args = new ArrayList<>(ids.size());
+      for (Long id : ids) args.add(new Object[] {id});
+      tx.executeWithoutResult(
+          status ->
+              jdbcTemplate.batchUpdate(
+                  "update outbox_events"
+                      + " set next_attempt_at = coalesce(created_at, current_timestamp)"
+                      + " where id = ? and next_attempt_at is null",
+                  args));
+      total += ids.size();
+      if (ids.size() < chunkSize) break;
+    }
+    if (total > 0) log.info("Backfilled next_attempt_at on {} outbox events", total);
+    return total;
+  }
+}
@@ -5,20 +5,44 @@ import java.time.Instant;
 import lombok.*;
 
 @Entity
-@Table(name = "outbox_events")
+@Table(
+    name = "outbox_events",
+    indexes = {
+      @Index(name = "idx_outbox_status_due", columnList = "status, next_attempt_at"),
+      @Index(name = "idx_outbox_status_updated", columnList = "status, updated_at"),
+      @Index(name = "idx_outbox_status_tenant", columnList = "status, tenant_id, created_at"),
+      @Index(
+          name = "idx_outbox_status_tenant_due",
+          columnList = "status, tenant_id, next_attempt_at"),
+      @Index(name = "idx_outbox_aggregate", columnList = "aggregate_id"),
+      @Index(name = "idx_outbox_status_lease", columnList = "status, lease_expires_at"),
+      @Index(name = "idx_outbox_unpublished", columnList = "status, published_at, id")
+    })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class OutboxEvent {
+  // pooled sequence so Hibernate can batch inserts (IDENTITY forces one round trip per row)
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+  @SequenceGenerator(
+      name = "outbox_events_seq",
+      sequenceName = "outbox_events_seq",
+      allocationSize = 50)
   private Long id;
 
-  // simple type + payload
   private String eventType;
 
+  // id of the order the event is about, and its tenant; read directly by the processing path
+  @Column(length = 64)
+  private String aggregateId;
+
+  @Column(length = 64)
+  private String tenantId;
+
+  // free-form extra data only; never read while processing
   @Column(columnDefinition = "CLOB")
   private String payload;
 
@@ -29,10 +53,44 @@ public class OutboxEvent {
   private Instant updatedAt;
   private Instant processingStartedAt;
 
+  // node that holds the IN_PROGRESS claim, and until when; see OutboxLeases
+  @Column(length = 64)
+  private String claimedBy;
+
+  private Instant leaseExpiresAt;
+
+  // processing attempts so far (counted at claim time), when the event may next be claimed, and
+  // why the last attempt failed
+  @Column(columnDefinition = "integer default 0 not null")
+  private int attempts;
+
+  private Instant nextAttemptAt;
+
+  @Column(length = 1000)
+  private String lastError;
+
+  // when the publisher's transport acknowledged the processed event, and which node is sending it
+  // until when; see OutboxPublisherStage
+  private Instant publishedAt;
+
+  @Column(length = 64)
+  private String publishClaimedBy;
+
+  private Instant publishLeaseExpiresAt;
+
+  /** New events are due immediately (claims walk {@code status, next_attempt_at}). */
+  @PrePersist
+  void defaultNextAttempt() {
+    if (nextAttemptAt == null) nextAttemptAt = createdAt != null ? createdAt : Instant.now();
+  }
+
   public enum Status {
     PENDING,
     IN_PROGRESS,
     PROCESSED,
-    FAILED
+    // unprocessable input, e.g. no order id; never retried
+    FAILED,
+    // gave up after outbox.retry.max-attempts; requeue through the admin API
+    DEAD_LETTER
   }
 }
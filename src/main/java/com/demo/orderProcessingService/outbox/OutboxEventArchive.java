@@ -0,0 +1,41 @@
+package com.demo.orderProcessingService.outbox;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.*;
+
+/** Cold copy of a PROCESSED outbox event, written by {@link OutboxRetentionService}. */
+@Entity
+@Table(
+    name = "outbox_events_archive",
+    indexes = {
+      @Index(name = "idx_outbox_archive_created", columnList = "created_at"),
+      @Index(name = "idx_outbox_archive_aggregate", columnList = "aggregate_id")
+    })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEventArchive {
+  // same id as the original event
+  @Id private Long id;
+
+  private String eventType;
+
+  @Column(length = 64)
+  private String aggregateId;
+
+  @Column(length = 64)
+  private String tenantId;
+
+  @Column(columnDefinition = "CLOB")
+  private String payload;
+
+  @Enumerated(EnumType.STRING)
+  private OutboxEvent.Status status;
+
+  private Instant createdAt;
+  private Instant updatedAt;
+  private Instant archivedAt;
+}
@@ -0,0 +1,15 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventArchiveRepository extends JpaRepository<OutboxEventArchive, Long> {
+  List<OutboxEventArchive> findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAsc(
+      Instant from, Instant to, Pageable page);
+
+  List<OutboxEventArchive> findByAggregateIdOrderByCreatedAtAsc(String aggregateId);
+}
@@ -0,0 +1,4 @@
+package com.demo.orderProcessingService.outbox;
+
+/** Where a claimed event goes: its order (partition key) and tenant (fairness accounting). */
+public record OutboxEventRoute(String orderId, String tenantId) {}
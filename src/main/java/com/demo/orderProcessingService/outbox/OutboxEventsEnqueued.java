@@ -0,0 +1,7 @@
+package com.demo.orderProcessingService.outbox;
+
+/**
+ * Published inside the transaction that writes new outbox events; listeners that only care about
+ * committed work should use {@code @TransactionalEventListener}.
+ */
+public record OutboxEventsEnqueued(String tenantId, int count) {}
@@ -0,0 +1,46 @@
+package com.demo.orderProcessingService.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Returns claims whose lease has run out (their node died or stalled) to PENDING. Runs on every
+ * instance; each pass is one indexed UPDATE whose cost follows the number of expired claims, not
+ * the size of the backlog.
+ */
+@Component
+public class OutboxLeaseSweeper {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxLeaseSweeper.class);
+
+  private final OutboxService outboxService;
+  private final boolean enabled;
+
+  public OutboxLeaseSweeper(
+      OutboxService outboxService, @Value("${outbox.lease.sweeper-enabled:true}") boolean enabled) {
+    this.outboxService = outboxService;
+    this.enabled = enabled;
+  }
+
+  @Scheduled(
+      fixedDelayString = "${outbox.lease.sweep-interval-ms:10000}",
+      initialDelayString = "${outbox.lease.sweep-interval-ms:10000}")
+  public void scheduledSweep() {
+    if (!enabled) return;
+    try {
+      sweep();
+    } catch (RuntimeException e) {
+      log.warn("Outbox lease sweep failed: {}", e.getMessage());
+    }
+  }
+
+  /** Returns the number of events handed back to PENDING. */
+  public int sweep() {
+    int released = outboxService.releaseExpiredLeases();
+    if (released > 0) log.info("Returned {} outbox events with expired leases", released);
+    return released;
+  }
+}
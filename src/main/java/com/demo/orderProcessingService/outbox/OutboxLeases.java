@@ -0,0 +1,57 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identity of this instance as an outbox claim owner, and the lease its claims carry. A claim is
+ * only honoured while {@code claimed_by} names this node; once {@code lease_expires_at} passes
+ * without renewal the {@link OutboxLeaseSweeper} of any instance hands the event back to PENDING.
+ */
+@Component
+public class OutboxLeases {
+
+  private final String nodeId;
+  private final Duration duration;
+
+  public OutboxLeases(
+      @Value("${outbox.lease.node-id:}") String nodeId,
+      @Value("${outbox.lease.duration-seconds:${outbox.worker.in-progress-timeout-seconds:60}}")
+          long durationSeconds) {
+    if (durationSeconds < 1) {
+      throw new IllegalArgumentException("outbox.lease.duration-seconds must be positive");
+    }
+    this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+    this.duration = Duration.ofSeconds(durationSeconds);
+  }
+
+  /** Owner id written to {@code claimed_by}; unique per running instance. */
+  public String nodeId() {
+    return nodeId;
+  }
+
+  public Duration duration() {
+    return duration;
+  }
+
+  /** Lease expiry for a claim taken or renewed at {@code now}. */
+  public Instant expiry(Instant now) {
+    return now.plus(duration);
+  }
+
+  // host name plus a random suffix, so a restarted process never inherits the old one's claims
+  private static String defaultNodeId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      host = "node";
+    }
+    String id = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    return id.length() > 64 ? id.substring(id.length() - 64) : id;
+  }
+}
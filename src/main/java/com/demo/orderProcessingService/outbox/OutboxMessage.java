@@ -0,0 +1,13 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.time.Instant;
+
+/** A processed outbox event as handed to an {@link OutboxPublisher}. */
+public record OutboxMessage(
+    Long id,
+    String eventType,
+    String aggregateId,
+    String tenantId,
+    String payload,
+    Instant createdAt,
+    Instant processedAt) {}
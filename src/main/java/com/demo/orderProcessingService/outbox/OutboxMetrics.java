@@ -0,0 +1,141 @@
+package com.demo.orderProcessingService.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the outbox hot path. Meters are registered once and per-tenant meters are cached, so a
+ * recording is a map lookup plus an atomic add. Tenants beyond {@code outbox.metrics.max-tenants}
+ * share the {@code other} tag to keep the series count bounded.
+ */
+@Component
+public class OutboxMetrics {
+
+  static final String UNKNOWN_TENANT = "unknown";
+  static final String OTHER_TENANT = "other";
+
+  private final MeterRegistry registry;
+  private final int maxTenants;
+
+  private final Timer claim;
+  private final Timer processEvent;
+  private final Timer processBatch;
+  private final Timer writeOrders;
+  private final Timer writeEvents;
+  private final Counter claimed;
+  private final Counter lostClaims;
+  private final Counter released;
+  private final Counter reset;
+
+  private final Map<String, Counter> processed = new ConcurrentHashMap<>();
+  private final Map<String, Counter> failed = new ConcurrentHashMap<>();
+  private final Map<String, Timer> validation = new ConcurrentHashMap<>();
+  private final Map<String, Counter> retried = new ConcurrentHashMap<>();
+  private final Map<String, Counter> deadLettered = new ConcurrentHashMap<>();
+  private final Function<String, Counter> newProcessed;
+  private final Function<String, Counter> newFailed;
+  private final Function<String, Timer> newValidation;
+  private final Function<String, Counter> newRetried;
+  private final Function<String, Counter> newDeadLettered;
+
+  public OutboxMetrics(
+      MeterRegistry registry, @Value("${outbox.metrics.max-tenants:1000}") int maxTenants) {
+    this.registry = registry;
+    this.maxTenants = maxTenants;
+    this.claim = registry.timer("outbox.claim");
+    this.processEvent = registry.timer("outbox.process", "mode", "event");
+    this.processBatch = registry.timer("outbox.process", "mode", "batch");
+    this.writeOrders = registry.timer("outbox.db.write", "table", "orders");
+    this.writeEvents = registry.timer("outbox.db.write", "table", "outbox_events");
+    this.claimed = registry.counter("outbox.events.claimed");
+    this.lostClaims = registry.counter("outbox.events.claim.lost");
+    this.released = registry.counter("outbox.events.released");
+    this.reset = registry.counter("outbox.events.reset");
+    this.newProcessed = t -> registry.counter("outbox.events.processed", "tenant", t);
+    this.newFailed = t -> registry.counter("outbox.events.failed", "tenant", t);
+    this.newValidation = t -> registry.timer("outbox.validation", "tenant", t);
+    this.newRetried = t -> registry.counter("outbox.events.retried", "tenant", t);
+    this.newDeadLettered = t -> registry.counter("outbox.events.dead_lettered", "tenant", t);
+  }
+
+  /** One claim attempt that took {@code nanos}, won {@code won} events and lost {@code lost}. */
+  public void claimed(long nanos, int won, int lost) {
+    claim.record(nanos, TimeUnit.NANOSECONDS);
+    if (won > 0) claimed.increment(won);
+    if (lost > 0) lostClaims.increment(lost);
+  }
+
+  /** Claims found taken over by another node when this one came to process them. */
+  public void lostClaims(int count) {
+    if (count > 0) lostClaims.increment(count);
+  }
+
+  public void released(int count) {
+    if (count > 0) released.increment(count);
+  }
+
+  /** IN_PROGRESS events handed back to PENDING after their processing timed out. */
+  public void reset(int count) {
+    if (count > 0) reset.increment(count);
+  }
+
+  public void processed(long nanos, int events) {
+    (events == 1 ? processEvent : processBatch).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void outcome(String tenantId, int processedCount, int failedCount) {
+    if (processedCount > 0) {
+      tenantMeter(processed, tenantId, newProcessed).increment(processedCount);
+    }
+    if (failedCount > 0) tenantMeter(failed, tenantId, newFailed).increment(failedCount);
+  }
+
+  /** A failed attempt that was scheduled for retry, or dead lettered. */
+  public void failedAttempt(String tenantId, boolean deadLetter) {
+    if (deadLetter) {
+      tenantMeter(deadLettered, tenantId, newDeadLettered).increment();
+    } else {
+      tenantMeter(retried, tenantId, newRetried).increment();
+    }
+  }
+
+  public void validated(String tenantId, long nanos) {
+    tenantMeter(validation, tenantId, newValidation).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void ordersWritten(long nanos) {
+    writeOrders.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void eventsWritten(long nanos) {
+    writeEvents.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Events finished (processed or failed) on this node so far, per tenant tag. */
+  public Map<String, Double> finishedTotals() {
+    Map<String, Double> totals = new HashMap<>();
+    processed.forEach((tenant, c) -> totals.merge(tenant, c.count(), Double::sum));
+    failed.forEach((tenant, c) -> totals.merge(tenant, c.count(), Double::sum));
+    return totals;
+  }
+
+  /** Tag value for a tenant, falling back to {@code other} once too many tenants were seen. */
+  String tenantTag(String tenantId, Map<String, ?> seen) {
+    if (tenantId == null) return UNKNOWN_TENANT;
+    return seen.containsKey(tenantId) || seen.size() < maxTenants ? tenantId : OTHER_TENANT;
+  }
+
+  private <M> M tenantMeter(Map<String, M> meters, String tenantId, Function<String, M> factory) {
+    M meter = meters.get(tenantId == null ? UNKNOWN_TENANT : tenantId);
+    if (meter != null) return meter;
+    return meters.computeIfAbsent(tenantTag(tenantId, meters), factory);
+  }
+}
@@ -0,0 +1,19 @@
+package com.demo.orderProcessingService.outbox;
+
+/** Parsing for the legacy {@code {"orderId":"..."}} payload format. */
+public final class OutboxPayloads {
+
+  private OutboxPayloads() {}
+
+  /** Returns the order id in a legacy payload, or null if there is none. */
+  public static String extractOrderId(String payload) {
+    if (payload == null) return null;
+    int i = payload.indexOf("\"orderId\"");
+    if (i < 0) return null;
+    int colon = payload.indexOf(":", i);
+    int q1 = payload.indexOf('"', colon);
+    int q2 = payload.indexOf('"', q1 + 1);
+    if (q1 < 0 || q2 < 0) return null;
+    return payload.substring(q1 + 1, q2);
+  }
+}
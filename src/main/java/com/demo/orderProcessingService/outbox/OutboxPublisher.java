@@ -0,0 +1,20 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport that carries processed outbox events to downstream consumers. {@link
+ * OutboxPublisherStage} calls {@link #publish} with the next batch without waiting for earlier
+ * batches to be acknowledged, and marks a batch published only once its future completes, so an
+ * implementation must complete the future only after every event in the batch is durably accepted.
+ * A batch that fails is sent again later: delivery is at least once.
+ *
+ * <p>Exactly one bean of this type must exist while {@code outbox.publisher.enabled} is true;
+ * {@link FileLogPublisher} is used unless {@code outbox.publisher.transport} names another.
+ */
+public interface OutboxPublisher {
+
+  /** Sends the batch; must not block the caller on the transport's acknowledgement. */
+  CompletableFuture<Void> publish(List<OutboxMessage> batch);
+}
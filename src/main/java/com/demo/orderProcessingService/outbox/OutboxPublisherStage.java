@@ -0,0 +1,338 @@
+package com.demo.orderProcessingService.outbox;
+
+import com.demo.orderProcessingService.domain.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Last stage of the outbox pipeline ({@code outbox.publisher.enabled}): hands PROCESSED events to
+ * the {@link OutboxPublisher} in batches of up to {@code batch-size}, waiting up to {@code
+ * linger-ms} for a partial batch to fill. Up to {@code max-in-flight} batches are sent before the
+ * first is acknowledged; each batch gets {@code published_at} once its own acknowledgement arrives,
+ * and a failed batch is sent again after {@code retry-backoff-ms}. Events reach the stage by
+ * polling {@code idx_outbox_unpublished} from the last id sent, starting over from the lowest
+ * unpublished id whenever it catches up, so events processed out of id order (retries) are picked
+ * up too. Woken when a status change commits.
+ *
+ * <p>Every instance may run the stage: a batch is claimed for this node ({@code
+ * publish_claimed_by}, leased like processing claims, see {@link OutboxLeases}) before it is sent,
+ * so each event goes out from one node unless that node's lease runs out first. Events processed
+ * before {@code publish-from} are marked published without being sent when the stage starts.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.publisher.enabled", havingValue = "true")
+public class OutboxPublisherStage implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxPublisherStage.class);
+
+  private final OutboxRepository outboxRepo;
+  private final OutboxPublisher publisher;
+  private final OutboxLeases leases;
+  private final TransactionTemplate tx;
+  private final Instant publishFrom;
+  private final int batchSize;
+  private final long lingerMs;
+  private final int maxInFlight;
+  private final long pollIntervalMs;
+  private final long retryBackoffNanos;
+  private final long shutdownTimeoutMs;
+  private final Semaphore slots;
+  private final Semaphore wakeups = new Semaphore(0);
+  private final Set<Long> inFlightIds = ConcurrentHashMap.newKeySet();
+  private final ExecutorService acks;
+  private final Counter published;
+  private final Counter failed;
+  private final Timer ackLatency;
+  private final DistributionSummary batchSizes;
+
+  private volatile long cursor;
+  private volatile long backoffUntil = System.nanoTime();
+  private volatile boolean running;
+  private Thread thread;
+
+  public OutboxPublisherStage(
+      OutboxRepository outboxRepo,
+      OutboxPublisher publisher,
+      OutboxLeases leases,
+      TransactionTemplate tx,
+      MeterRegistry meterRegistry,
+      @Value("${outbox.publisher.batch-size:500}") int batchSize,
+      @Value("${outbox.publisher.linger-ms:5}") long lingerMs,
+      @Value("${outbox.publisher.max-in-flight:4}") int maxInFlight,
+      @Value("${outbox.publisher.poll-interval-ms:1000}") long pollIntervalMs,
+      @Value("${outbox.publisher.retry-backoff-ms:1000}") long retryBackoffMs,
+      @Value("${outbox.publisher.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+      @Value("${outbox.publisher.publish-from:}") String publishFrom) {
+    if (batchSize < 1 || maxInFlight < 1) {
+      throw new IllegalArgumentException(
+          "outbox.publisher.batch-size and max-in-flight must be positive");
+    }
+    try {
+      this.publishFrom = publishFrom.isBlank() ? null : Instant.parse(publishFrom);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException(
+          "outbox.publisher.publish-from must be an ISO-8601 instant: " + publishFrom);
+    }
+    this.outboxRepo = outboxRepo;
+    this.publisher = publisher;
+    this.leases = leases;
+    this.tx = tx;
+    this.batchSize = batchSize;
+    this.lingerMs = lingerMs;
+    this.maxInFlight = maxInFlight;
+    this.pollIntervalMs = Math.max(1, pollIntervalMs);
+    this.retryBackoffNanos = TimeUnit.MILLISECONDS.toNanos(retryBackoffMs);
+    this.shutdownTimeoutMs = shutdownTimeoutMs;
+    this.slots = new Semaphore(maxInFlight);
+    this.acks =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              Thread t = new Thread(r, "outbox-publish-ack");
+              t.setDaemon(true);
+              return t;
+            });
+    this.published =
+        Counter.builder("outbox.publish.events")
+            .description("Outbox events acknowledged by the publisher")
+            .register(meterRegistry);
+    this.failed = meterRegistry.counter("outbox.publish.failures");
+    this.ackLatency =
+        Timer.builder("outbox.publish.latency")
+            .description("Time from sending a batch to its acknowledgement")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.batchSizes =
+        DistributionSummary.builder("outbox.publish.batch.size")
+            .description("Events per published batch")
+            .register(meterRegistry);
+    Gauge.builder("outbox.publish.in.flight", slots, s -> maxInFlight - s.availablePermits())
+        .description("Batches sent and not yet acknowledged")
+        .register(meterRegistry);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onStatusChanged(OrderStatusChangedEvent event) {
+    wakeup();
+  }
+
+  public void wakeup() {
+    if (wakeups.availablePermits() == 0) wakeups.release();
+  }
+
+  /**
+   * Sends the next batch if a slot is free. Returns the number of events sent, 0 when nothing was
+   * waiting, or -1 when every slot is taken or a failed batch is still backing off.
+   */
+  public int publishNext() throws InterruptedException {
+    if (backoffUntil - System.nanoTime() > 0) return -1;
+    if (!slots.tryAcquire()) return -1;
+    boolean sent = false;
+    List<OutboxMessage> batch = new ArrayList<>();
+    try {
+      claimInto(batch);
+      if (!batch.isEmpty() && batch.size() < batchSize && lingerMs > 0) {
+        // a partial batch: give it a moment to fill
+        Thread.sleep(lingerMs);
+        claimInto(batch);
+      }
+      if (batch.isEmpty()) return 0;
+      send(batch);
+      sent = true;
+      return batch.size();
+    } finally {
+      if (!sent) {
+        release(batch);
+        slots.release();
+      }
+    }
+  }
+
+  private void claimInto(List<OutboxMessage> batch) {
+    int limit = batchSize - batch.size();
+    Instant now = Instant.now();
+    List<OutboxMessage> claimed =
+        tx.execute(
+            status ->
+                outboxRepo.claimUnpublished(
+                    cursor, limit, leases.nodeId(), now, leases.expiry(now)));
+    for (OutboxMessage m : claimed) {
+      // still ours from a send whose lease ran out before its acknowledgement; that one marks it
+      if (!inFlightIds.contains(m.id())) batch.add(m);
+    }
+    boolean caughtUp = claimed.size() < limit;
+    cursor = caughtUp || claimed.isEmpty() ? 0 : claimed.get(claimed.size() - 1).id();
+  }
+
+  private void release(List<OutboxMessage> batch) {
+    if (batch.isEmpty()) return;
+    List<Long> ids = new ArrayList<>(batch.size());
+    for (OutboxMessage m : batch) ids.add(m.id());
+    releaseClaims(ids);
+  }
+
+  private void releaseClaims(List<Long> ids) {
+    try {
+      outboxRepo.releasePublishClaims(ids, leases.nodeId());
+    } catch (RuntimeException ex) {
+      // the lease runs out on its own
+      log.warn("Could not release {} outbox publish claims: {}", ids.size(), ex.getMessage());
+    }
+  }
+
+  /** Marks events processed before {@code publish-from} as published, so they are never sent. */
+  private void skipHistory() {
+    if (publishFrom == null) return;
+    long skipped = 0;
+    int n;
+    do {
+      n = outboxRepo.skipUnpublished(publishFrom, batchSize, Instant.now());
+      skipped += n;
+    } while (n == batchSize && running);
+    if (skipped > 0) {
+      log.info("Marked {} outbox events processed before {} as published", skipped, publishFrom);
+    }
+  }
+
+  private void send(List<OutboxMessage> batch) {
+    List<Long> ids = new ArrayList<>(batch.size());
+    for (OutboxMessage m : batch) ids.add(m.id());
+    inFlightIds.addAll(ids);
+    batchSizes.record(batch.size());
+    long started = System.nanoTime();
+    CompletableFuture<Void> ack;
+    try {
+      ack = publisher.publish(batch);
+    } catch (RuntimeException ex) {
+      ack = CompletableFuture.failedFuture(ex);
+    }
+    // acknowledgements are recorded off the transport's thread, which goes on sending
+    ack.whenCompleteAsync((ok, ex) -> acknowledged(ids, started, ex), acks);
+  }
+
+  private void acknowledged(List<Long> ids, long started, Throwable error) {
+    boolean done = false;
+    try {
+      if (error == null) {
+        outboxRepo.markPublished(ids, Instant.now());
+        ackLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        published.increment(ids.size());
+        done = true;
+      } else {
+        log.warn("Publishing {} outbox events failed: {}", ids.size(), error.getMessage());
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Could not mark {} outbox events published: {}", ids.size(), ex.getMessage());
+    }
+    if (!done) {
+      // back off, then pick them up again from the lowest unpublished id; other nodes may take
+      // them meanwhile
+      releaseClaims(ids);
+      failed.increment(ids.size());
+      backoffUntil = System.nanoTime() + retryBackoffNanos;
+      cursor = 0;
+    }
+    inFlightIds.removeAll(ids);
+    slots.release();
+    wakeup();
+  }
+
+  private void loop() {
+    // nothing is sent until the history is skipped, or it would go out after all
+    while (running) {
+      try {
+        skipHistory();
+        break;
+      } catch (RuntimeException ex) {
+        log.warn("Could not skip outbox events processed before {}", publishFrom, ex);
+      }
+      try {
+        Thread.sleep(pollIntervalMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    while (running) {
+      int sent;
+      try {
+        sent = publishNext();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException ex) {
+        log.warn("Outbox publish poll failed", ex);
+        sent = 0;
+      }
+      if (sent > 0) continue;
+
+      // acknowledgements and committed status changes wake the stage early
+      long backoffMs = TimeUnit.NANOSECONDS.toMillis(backoffUntil - System.nanoTime());
+      long waitMs = backoffMs > 0 ? Math.min(backoffMs + 1, pollIntervalMs) : pollIntervalMs;
+      try {
+        if (wakeups.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) wakeups.drainPermits();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /** Stops after the worker pool, so events it processed last are still sent. */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4097;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    thread = new Thread(this::loop, "outbox-publisher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public void stop() {
+    if (!running) return;
+    running = false;
+    wakeup();
+    try {
+      thread.join(shutdownTimeoutMs);
+      // wait for the batches already sent to be acknowledged
+      if (slots.tryAcquire(maxInFlight, shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+        slots.release(maxInFlight);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    acks.shutdown();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
@@ -1,15 +1,33 @@
 package com.demo.orderProcessingService.outbox;
 
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+public interface OutboxRepository
+    extends JpaRepository<OutboxEvent, Long>, OutboxClaimRepository, OutboxBatchRepository {
   List<OutboxEvent> findByStatusOrderByCreatedAtAsc(OutboxEvent.Status status);
 
+  long countByStatus(OutboxEvent.Status status);
+
+  List<OutboxEvent> findByStatusOrderByUpdatedAtAsc(OutboxEvent.Status status, Pageable page);
+
+  List<OutboxEvent> findByStatusAndTenantIdOrderByUpdatedAtAsc(
+      OutboxEvent.Status status, String tenantId, Pageable page);
+
+  /** Rows of (id, aggregateId, tenantId, attempts). */
+  @Query("select e.id, e.aggregateId, e.tenantId, e.attempts from OutboxEvent e where e.id in ?1")
+  List<Object[]> findAggregateIds(Collection<Long> ids);
+
+  /** Only for rows written before aggregate_id existed; reads the payload LOB. */
+  @Query("select e.id, e.payload from OutboxEvent e where e.id in ?1")
+  List<Object[]> findPayloads(Collection<Long> ids);
+
   @Modifying
   @Query(
       "update OutboxEvent e set e.status = ?2, e.processingStartedAt = ?3, e.updatedAt = ?4 where e.id = ?1 and e.status = ?5")
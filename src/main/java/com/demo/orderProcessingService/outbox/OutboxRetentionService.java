@@ -0,0 +1,157 @@
+package com.demo.orderProcessingService.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves PROCESSED events older than {@code outbox.retention.max-age} into {@code
+ * outbox_events_archive} and deletes them from the hot table; with {@code outbox.publisher.enabled}
+ * only events the publisher has delivered are moved. Each chunk is copied and deleted in its own
+ * short transaction, with a pause between chunks, so row locks are held briefly and the outbox
+ * workers keep getting connections.
+ */
+@Service
+public class OutboxRetentionService {
+  private static final Logger log = LoggerFactory.getLogger(OutboxRetentionService.class);
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final OutboxEventArchiveRepository archiveRepository;
+  private final TransactionTemplate tx;
+  private final boolean enabled;
+  private final boolean publisherEnabled;
+  private final Duration maxAge;
+  private final int chunkSize;
+  private final int maxChunksPerRun;
+  private final long pauseMs;
+  private final Counter archived;
+  private final Counter bytesReclaimed;
+  private final Timer duration;
+
+  public OutboxRetentionService(
+      JdbcTemplate jdbcTemplate,
+      OutboxEventArchiveRepository archiveRepository,
+      TransactionTemplate tx,
+      MeterRegistry meterRegistry,
+      @Value("${outbox.retention.enabled:true}") boolean enabled,
+      @Value("${outbox.publisher.enabled:false}") boolean publisherEnabled,
+      @Value("${outbox.retention.max-age:7d}") Duration maxAge,
+      @Value("${outbox.retention.chunk-size:500}") int chunkSize,
+      @Value("${outbox.retention.max-chunks-per-run:100}") int maxChunksPerRun,
+      @Value("${outbox.retention.pause-ms:50}") long pauseMs) {
+    this.jdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.archiveRepository = archiveRepository;
+    this.tx = tx;
+    this.enabled = enabled;
+    this.publisherEnabled = publisherEnabled;
+    this.maxAge = maxAge;
+    this.chunkSize = chunkSize;
+    this.maxChunksPerRun = maxChunksPerRun;
+    this.pauseMs = pauseMs;
+    this.archived = meterRegistry.counter("outbox.retention.archived");
+    this.bytesReclaimed =
+        Counter.builder("outbox.retention.reclaimed")
+            .baseUnit("bytes")
+            .description("Approximate payload bytes moved out of outbox_events")
+            .register(meterRegistry);
+    this.duration = meterRegistry.timer("outbox.retention.duration");
+  }
+
+  @Scheduled(
+      fixedDelayString = "${outbox.retention.interval-ms:60000}",
+      initialDelayString = "${outbox.retention.interval-ms:60000}")
+  public void scheduledRun() {
+    if (enabled) archiveExpired();
+  }
+
+  /** Archives up to {@code max-chunks-per-run} chunks; returns the number of events archived. */
+  public long archiveExpired() {
+    long started = System.nanoTime();
+    Instant cutoff = Instant.now().minus(maxAge);
+    long total = 0;
+    try {
+      for (int i = 0; i < maxChunksPerRun; i++) {
+        Integer moved = tx.execute(status -> archiveChunk(cutoff));
+        if (moved == null || moved == 0) break;
+        total += moved;
+        if (moved < chunkSize) break;
+        Thread.sleep(pauseMs);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+    if (total > 0) log.info("Archived {} processed outbox events older than {}", total, cutoff);
+    return total;
+  }
+
+  public Optional<OutboxEventArchive> findArchived(Long id) {
+    return archiveRepository.findById(id);
+  }
+
+  /** Archived events created in {@code [from, to)}, oldest first. */
+  public List<OutboxEventArchive> findArchived(Instant from, Instant to, int limit) {
+    return archiveRepository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAsc(
+        from, to, PageRequest.of(0, limit));
+  }
+
+  public List<OutboxEventArchive> findArchivedByAggregate(String aggregateId) {
+    return archiveRepository.findByAggregateIdOrderByCreatedAtAsc(aggregateId);
+  }
+
+  private int archiveChunk(Instant cutoff) {
+    List<Long> ids =
+        jdbc.queryForList(
+            "select id from outbox_events where status = :status and updated_at < :cutoff"
+                + (publisherEnabled ? " and published_at is not null" : "")
+                + " order by updated_at, id limit :limit",
+            Map.of(
+                "status", OutboxEvent.Status.PROCESSED.name(),
+                "cutoff", Timestamp.from(cutoff),
+                "limit", chunkSize),
+            Long.class);
+    if (ids.isEmpty()) return 0;
+
+    Map<String, Object> params =
+        Map.of(
+            "ids", ids,
+            "status", OutboxEvent.Status.PROCESSED.name(),
+            "now", Timestamp.from(Instant.now()));
+    Long bytes =
+        jdbc.queryForObject(
+            "select coalesce(sum(length(payload)), 0) from outbox_events where id in (:ids)",
+            params,
+            Long.class);
+    jdbc.update(
+        "insert into outbox_events_archive"
+            + " (id, event_type, aggregate_id, tenant_id, payload, status, created_at,"
+            + " updated_at, archived_at)"
+            + " select id, event_type, aggregate_id, tenant_id, payload, status, created_at,"
+            + " updated_at, :now"
+            + " from outbox_events where id in (:ids) and status = :status",
+        params);
+    int deleted =
+        jdbc.update("delete from outbox_events where id in (:ids) and status = :status", params);
+
+    archived.increment(deleted);
+    if (bytes != null) bytesReclaimed.increment(bytes);
+    return deleted;
+  }
+}
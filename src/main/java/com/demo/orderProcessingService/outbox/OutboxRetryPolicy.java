@@ -0,0 +1,51 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * When a failed outbox event is tried again: exponential backoff from {@code initial-backoff-ms},
+ * capped at {@code max-backoff-ms}, with "equal jitter" (half the delay fixed, half random) so
+ * events that failed together do not retry together. After {@code max-attempts} the event is dead
+ * lettered.
+ */
+@Component
+public class OutboxRetryPolicy {
+
+  private final int maxAttempts;
+  private final long initialBackoffMs;
+  private final long maxBackoffMs;
+
+  public OutboxRetryPolicy(
+      @Value("${outbox.retry.max-attempts:5}") int maxAttempts,
+      @Value("${outbox.retry.initial-backoff-ms:1000}") long initialBackoffMs,
+      @Value("${outbox.retry.max-backoff-ms:300000}") long maxBackoffMs) {
+    if (maxAttempts < 1 || initialBackoffMs < 1 || maxBackoffMs < initialBackoffMs) {
+      throw new IllegalArgumentException(
+          "outbox.retry.max-attempts and initial-backoff-ms must be positive"
+              + " and max-backoff-ms at least initial-backoff-ms");
+    }
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMs = initialBackoffMs;
+    this.maxBackoffMs = maxBackoffMs;
+  }
+
+  public int maxAttempts() {
+    return maxAttempts;
+  }
+
+  /** True once an event that has been attempted {@code attempts} times should not be retried. */
+  public boolean exhausted(int attempts) {
+    return attempts >= maxAttempts;
+  }
+
+  /** When an event whose attempt number {@code attempts} just failed may be claimed again. */
+  public Instant nextAttempt(int attempts, Instant now) {
+    double backoff = initialBackoffMs * Math.pow(2, Math.max(attempts - 1, 0));
+    long delay = (long) Math.min(maxBackoffMs, backoff);
+    long half = delay / 2;
+    return now.plusMillis(half + ThreadLocalRandom.current().nextLong(delay - half + 1));
+  }
+}
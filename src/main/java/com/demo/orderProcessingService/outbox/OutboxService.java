@@ -1,11 +1,21 @@
 package com.demo.orderProcessingService.outbox;
 
 import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.domain.OrderStatusChangedEvent;
 import com.demo.orderProcessingService.repository.OrderRepository;
 import com.demo.orderProcessingService.validation.TenantOrderValidator;
 import com.demo.orderProcessingService.validation.ValidatorRegistry;
+import jakarta.persistence.EntityManager;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,30 +26,226 @@ public class OutboxService {
   private final OutboxRepository outboxRepository;
   private final OrderRepository orderRepository;
   private final ValidatorRegistry validatorRegistry;
+  private final ApplicationEventPublisher events;
+  private final OutboxMetrics metrics;
+  private final OutboxLeases leases;
+  private final OutboxRetryPolicy retryPolicy;
+  private final EntityManager entityManager;
 
   public OutboxService(
       OutboxRepository outboxRepository,
       OrderRepository orderRepository,
-      ValidatorRegistry validatorRegistry) {
+      ValidatorRegistry validatorRegistry,
+      ApplicationEventPublisher events,
+      OutboxMetrics metrics,
+      OutboxLeases leases,
+      OutboxRetryPolicy retryPolicy,
+      EntityManager entityManager) {
     this.outboxRepository = outboxRepository;
     this.orderRepository = orderRepository;
     this.validatorRegistry = validatorRegistry;
+    this.events = events;
+    this.metrics = metrics;
+    this.leases = leases;
+    this.retryPolicy = retryPolicy;
+    this.entityManager = entityManager;
   }
 
   /**
-   * Attempt to claim event using a compare-and-set (must run inside a transaction). Returns true if
-   * claimed.
+   * Attempt to claim event for this node using a compare-and-set (must run inside a transaction).
+   * Returns true if claimed.
    */
   @Transactional
   public boolean tryClaimEvent(Long eventId) {
-    int updated =
-        outboxRepository.compareAndSetStatus(
-            eventId,
-            OutboxEvent.Status.IN_PROGRESS,
-            Instant.now(),
-            Instant.now(),
-            OutboxEvent.Status.PENDING);
-    return updated > 0;
+    long started = System.nanoTime();
+    Instant now = Instant.now();
+    boolean claimed =
+        outboxRepository.claimEvent(eventId, leases.nodeId(), now, leases.expiry(now));
+    metrics.claimed(System.nanoTime() - started, claimed ? 1 : 0, claimed ? 0 : 1);
+    return claimed;
+  }
+
+  /**
+   * Claim the oldest pending events in one bounded statement and commit the claim, so the returned
+   * ids can then be handed to {@link #processEvent(Long)}.
+   */
+  @Transactional
+  public List<Long> claimBatch(int limit) {
+    long started = System.nanoTime();
+    Instant now = Instant.now();
+    List<Long> claimed =
+        outboxRepository.claimPending(limit, leases.nodeId(), now, leases.expiry(now));
+    metrics.claimed(System.nanoTime() - started, claimed.size(), 0);
+    return claimed;
+  }
+
+  /** Hand claimed events that will not be processed here back to PENDING. */
+  @Transactional
+  public int releaseClaims(List<Long> eventIds) {
+    int released = outboxRepository.releaseClaims(eventIds, leases.nodeId(), Instant.now());
+    metrics.released(released);
+    return released;
+  }
+
+  /**
+   * Extend the leases of claims this node still holds (queued or running); returns how many are
+   * still owned.
+   */
+  @Transactional
+  public int renewLeases(Collection<Long> eventIds) {
+    if (eventIds.isEmpty()) return 0;
+    return outboxRepository
+        .renewLeases(List.copyOf(eventIds), leases.nodeId(), leases.expiry(Instant.now()))
+        .size();
+  }
+
+  /**
+   * Hand claims whose lease ran out, on any node, back to PENDING (or to DEAD_LETTER when out of
+   * attempts, failing their orders); returns how many.
+   */
+  @Transactional
+  public int releaseExpiredLeases() {
+    Instant now = Instant.now();
+    Instant legacyCutoff = now.minus(leases.duration());
+    List<Long> dead =
+        outboxRepository.deadLetterExpiredLeases(now, legacyCutoff, retryPolicy.maxAttempts());
+    if (!dead.isEmpty()) failOrders(orderIdsOf(dead), now);
+    int released =
+        dead.size()
+            + outboxRepository.releaseExpiredLeases(now, legacyCutoff, retryPolicy.maxAttempts());
+    metrics.reset(released);
+    return released;
+  }
+
+  /**
+   * Claim up to the given number of pending events per tenant ({@code null} key for events without
+   * a tenant) in one transaction, each tenant oldest first. Returns the claimed ids per tenant.
+   */
+  @Transactional
+  public Map<String, List<Long>> claimForTenants(Map<String, Integer> quotas) {
+    long started = System.nanoTime();
+    Instant now = Instant.now();
+    Instant lease = leases.expiry(now);
+    Map<String, List<Long>> claimed = new LinkedHashMap<>(quotas.size() * 2);
+    int total = 0;
+    for (Map.Entry<String, Integer> quota : quotas.entrySet()) {
+      List<Long> ids =
+          outboxRepository.claimPendingForTenant(
+              quota.getKey(), quota.getValue(), leases.nodeId(), now, lease);
+      claimed.put(quota.getKey(), ids);
+      total += ids.size();
+    }
+    metrics.claimed(System.nanoTime() - started, total, 0);
+    return claimed;
+  }
+
+  /**
+   * Record a failed attempt for claimed events whose processing transaction rolled back: each goes
+   * back to PENDING after a backoff, or to DEAD_LETTER once out of attempts. Runs in a transaction
+   * of its own, never in the rollback-only one that failed.
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void recordFailure(List<Long> claimedIds, Throwable error) {
+    Instant now = Instant.now();
+    List<Long> owned =
+        outboxRepository.renewLeases(claimedIds, leases.nodeId(), leases.expiry(now));
+    if (owned.isEmpty()) return;
+    List<OutboxRepository.Retry> retries = new ArrayList<>(owned.size());
+    List<Long> dead = new ArrayList<>();
+    for (Object[] row : outboxRepository.findAggregateIds(owned)) {
+      OutboxRepository.Retry retry =
+          retry((Long) row[0], (String) row[2], (Integer) row[3], error, now);
+      retries.add(retry);
+      if (retry.status() == OutboxEvent.Status.DEAD_LETTER) dead.add(retry.id());
+    }
+    outboxRepository.scheduleRetries(retries, leases.nodeId(), now);
+    if (!dead.isEmpty()) failOrders(orderIdsOf(dead), now);
+  }
+
+  /** DEAD_LETTER events, longest dead first, optionally of one tenant. */
+  @Transactional(readOnly = true)
+  public List<OutboxEvent> findDeadLetters(String tenantId, int limit) {
+    PageRequest page = PageRequest.of(0, limit);
+    return tenantId == null
+        ? outboxRepository.findByStatusOrderByUpdatedAtAsc(OutboxEvent.Status.DEAD_LETTER, page)
+        : outboxRepository.findByStatusAndTenantIdOrderByUpdatedAtAsc(
+            OutboxEvent.Status.DEAD_LETTER, tenantId, page);
+  }
+
+  /**
+   * Give up to {@code limit} DEAD_LETTER events (optionally only {@code eventIds} and/or one
+   * tenant) a fresh attempt budget and make them due now. Returns the requeued ids.
+   */
+  @Transactional
+  public List<Long> requeueDeadLetters(Collection<Long> eventIds, String tenantId, int limit) {
+    return outboxRepository.requeueDeadLetters(eventIds, tenantId, limit, Instant.now());
+  }
+
+  private OutboxRepository.Retry retry(
+      Long eventId, String tenantId, int attempts, Throwable error, Instant now) {
+    boolean dead = retryPolicy.exhausted(attempts);
+    metrics.failedAttempt(tenantId, dead);
+    return new OutboxRepository.Retry(
+        eventId,
+        dead ? OutboxEvent.Status.DEAD_LETTER : OutboxEvent.Status.PENDING,
+        dead ? now : retryPolicy.nextAttempt(attempts, now),
+        error.getClass().getSimpleName() + ": " + error.getMessage());
+  }
+
+  /** The orders behind the given events, reading the payload of rows not yet backfilled. */
+  private List<String> orderIdsOf(List<Long> eventIds) {
+    List<String> orderIds = new ArrayList<>(eventIds.size());
+    List<Long> legacy = new ArrayList<>();
+    for (Object[] row : outboxRepository.findAggregateIds(eventIds)) {
+      if (row[1] != null) orderIds.add((String) row[1]);
+      else legacy.add((Long) row[0]);
+    }
+    if (!legacy.isEmpty()) {
+      for (Object[] row : outboxRepository.findPayloads(legacy)) {
+        String orderId = OutboxPayloads.extractOrderId((String) row[1]);
+        if (orderId != null) orderIds.add(orderId);
+      }
+    }
+    return orderIds;
+  }
+
+  /**
+   * A dead lettered event will not validate its order: mark the order FAILED while it is still
+   * PENDING, and say so like any other decision, so waiters and tenant stats are not left hanging.
+   */
+  private void failOrders(Collection<String> orderIds, Instant now) {
+    Map<String, OrderEntity.OrderStatus> failed = new HashMap<>(orderIds.size() * 2);
+    List<OrderEntity> orders = orderRepository.findAllById(new HashSet<>(orderIds));
+    for (OrderEntity order : orders) {
+      if (order.getStatus() == OrderEntity.OrderStatus.PENDING) {
+        failed.put(order.getId(), OrderEntity.OrderStatus.FAILED);
+      }
+    }
+    orderRepository.updateStatuses(failed, now);
+    orders.forEach(entityManager::detach);
+    for (OrderEntity order : orders) {
+      if (!failed.containsKey(order.getId())) continue;
+      events.publishEvent(
+          new OrderStatusChangedEvent(
+              order.getId(),
+              order.getTenantId(),
+              order.getAmount(),
+              OrderEntity.OrderStatus.PENDING,
+              OrderEntity.OrderStatus.FAILED));
+    }
+  }
+
+  /**
+   * Order and tenant of each event: events of the same order go to the same partition, and
+   * in-flight work is counted per tenant.
+   */
+  @Transactional(readOnly = true)
+  public Map<Long, OutboxEventRoute> routesFor(List<Long> eventIds) {
+    Map<Long, OutboxEventRoute> routes = new HashMap<>(eventIds.size() * 2);
+    for (Object[] row : outboxRepository.findAggregateIds(eventIds)) {
+      routes.put((Long) row[0], new OutboxEventRoute((String) row[1], (String) row[2]));
+    }
+    return routes;
   }
 
   /**
@@ -48,48 +254,138 @@ public class OutboxService {
    */
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   public void processEvent(Long eventId) {
-    Optional<OutboxEvent> opt = outboxRepository.findById(eventId);
-    if (opt.isEmpty()) return;
-    OutboxEvent event = opt.get();
-    try {
-      String payload = event.getPayload();
-      String orderId = extractOrderId(payload);
-      OrderEntity order = orderRepository.findById(orderId).orElse(null);
-      if (order == null) {
-        // nothing to do
-        event.setStatus(OutboxEvent.Status.PROCESSED);
-        event.setUpdatedAt(Instant.now());
-        outboxRepository.save(event);
-        return;
-      }
+    long started = System.nanoTime();
+    process(List.of(eventId));
+    metrics.processed(System.nanoTime() - started, 1);
+  }
 
-      TenantOrderValidator validator = validatorRegistry.get(order.getTenantId());
-      boolean ok = validator.validate(order);
+  /**
+   * Process a claimed batch in one transaction: events and their orders are loaded with one IN
+   * query each, validated in memory, and both status sets are written back as JDBC batches. An
+   * event whose validation throws is scheduled for a retry (or dead-lettered, failing its order) on
+   * its own, and one whose payload cannot be read is marked FAILED; the rest of the batch still
+   * commits.
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void processBatch(List<Long> eventIds) {
+    if (eventIds.isEmpty()) return;
+    long started = System.nanoTime();
+    process(eventIds);
+    metrics.processed(System.nanoTime() - started, eventIds.size());
+  }
 
-      if (ok) {
-        order.setStatus(OrderEntity.OrderStatus.PROCESSED);
+  private void process(List<Long> claimedIds) {
+    // Re-assert ownership first: this keeps the rows locked until commit, and skips events whose
+    // lease expired and that may already be running elsewhere.
+    List<Long> eventIds =
+        outboxRepository.renewLeases(claimedIds, leases.nodeId(), leases.expiry(Instant.now()));
+    if (eventIds.size() < claimedIds.size()) {
+      metrics.lostClaims(claimedIds.size() - eventIds.size());
+      if (eventIds.isEmpty()) return;
+    }
+    Map<Long, String> orderIdByEvent = new HashMap<>(eventIds.size() * 2);
+    Map<Long, OutboxEvent.Status> eventStatuses = new HashMap<>(eventIds.size() * 2);
+    Map<Long, Integer> attempts = new HashMap<>(eventIds.size() * 2);
+    List<Long> legacy = null;
+    for (Object[] row : outboxRepository.findAggregateIds(eventIds)) {
+      attempts.put((Long) row[0], (Integer) row[3]);
+      if (row[1] != null) {
+        orderIdByEvent.put((Long) row[0], (String) row[1]);
       } else {
-        order.setStatus(OrderEntity.OrderStatus.FAILED);
+        if (legacy == null) legacy = new ArrayList<>();
+        legacy.add((Long) row[0]);
       }
-      orderRepository.save(order);
-
-      event.setStatus(OutboxEvent.Status.PROCESSED);
-      event.setUpdatedAt(Instant.now());
-      outboxRepository.save(event);
-    } catch (Exception ex) {
-      event.setStatus(OutboxEvent.Status.FAILED);
-      event.setUpdatedAt(Instant.now());
-      outboxRepository.save(event);
     }
-  }
+    if (legacy != null) {
+      // rows written before aggregate_id existed and not yet backfilled
+      for (Object[] row : outboxRepository.findPayloads(legacy)) {
+        String orderId = OutboxPayloads.extractOrderId((String) row[1]);
+        if (orderId == null) {
+          eventStatuses.put((Long) row[0], OutboxEvent.Status.FAILED);
+          metrics.outcome(null, 0, 1);
+        } else {
+          orderIdByEvent.put((Long) row[0], orderId);
+        }
+      }
+    }
+
+    Map<String, OrderEntity> orders = new HashMap<>(orderIdByEvent.size() * 2);
+    for (OrderEntity order : orderRepository.findAllById(new HashSet<>(orderIdByEvent.values()))) {
+      orders.put(order.getId(), order);
+    }
+
+    // group by tenant so each validator sees its orders in one call
+    Map<String, List<OrderEntity>> byTenant = new HashMap<>();
+    Map<String, List<Long>> eventsByTenant = new HashMap<>();
+    for (Map.Entry<Long, String> entry : orderIdByEvent.entrySet()) {
+      OrderEntity order = orders.get(entry.getValue());
+      if (order == null) {
+        // nothing to do
+        eventStatuses.put(entry.getKey(), OutboxEvent.Status.PROCESSED);
+        metrics.outcome(null, 1, 0);
+        continue;
+      }
+      String tenantId = order.getTenantId();
+      byTenant.computeIfAbsent(tenantId, t -> new ArrayList<>()).add(order);
+      eventsByTenant.computeIfAbsent(tenantId, t -> new ArrayList<>()).add(entry.getKey());
+    }
+
+    Map<String, OrderEntity.OrderStatus> orderStatuses = new HashMap<>(orders.size() * 2);
+    List<OutboxRepository.Retry> retries = new ArrayList<>();
+    Instant now = Instant.now();
+    byTenant.forEach(
+        (tenantId, tenantOrders) -> {
+          List<Long> tenantEvents = eventsByTenant.get(tenantId);
+          TenantOrderValidator validator = validatorRegistry.get(tenantId);
+          boolean[] verdicts = null;
+          long started = System.nanoTime();
+          try {
+            verdicts = validator.validateBatch(tenantOrders);
+          } catch (RuntimeException ex) {
+            // fall through to one-by-one so only the offending events fail
+          }
+          int failed = 0;
+          for (int i = 0; i < tenantOrders.size(); i++) {
+            OrderEntity order = tenantOrders.get(i);
+            try {
+              boolean ok = verdicts != null ? verdicts[i] : validator.validate(order);
+              orderStatuses.put(
+                  order.getId(),
+                  ok ? OrderEntity.OrderStatus.PROCESSED : OrderEntity.OrderStatus.FAILED);
+              eventStatuses.put(tenantEvents.get(i), OutboxEvent.Status.PROCESSED);
+            } catch (RuntimeException ex) {
+              Long eventId = tenantEvents.get(i);
+              OutboxRepository.Retry retry =
+                  retry(eventId, tenantId, attempts.get(eventId), ex, now);
+              retries.add(retry);
+              if (retry.status() == OutboxEvent.Status.DEAD_LETTER
+                  && order.getStatus() == OrderEntity.OrderStatus.PENDING) {
+                orderStatuses.put(order.getId(), OrderEntity.OrderStatus.FAILED);
+              }
+              failed++;
+            }
+          }
+          metrics.validated(tenantId, System.nanoTime() - started);
+          metrics.outcome(tenantId, tenantOrders.size() - failed, failed);
+        });
+
+    long written = System.nanoTime();
+    orderRepository.updateStatuses(orderStatuses, now);
+    // The JDBC write bypassed the persistence context: drop the loaded copies so that nothing later
+    // in this transaction (or an AFTER_COMMIT listener joining it) reads their old status.
+    orders.values().forEach(entityManager::detach);
+    long ordersDone = System.nanoTime();
+    outboxRepository.updateStatuses(eventStatuses, leases.nodeId(), now);
+    if (!retries.isEmpty()) outboxRepository.scheduleRetries(retries, leases.nodeId(), now);
+    metrics.ordersWritten(ordersDone - written);
+    metrics.eventsWritten(System.nanoTime() - ordersDone);
 
-  private String extractOrderId(String payload) {
-    int i = payload.indexOf("\"orderId\"");
-    if (i < 0) return null;
-    int colon = payload.indexOf(":", i);
-    int q1 = payload.indexOf('"', colon);
-    int q2 = payload.indexOf('"', q1 + 1);
-    if (q1 < 0 || q2 < 0) return null;
-    return payload.substring(q1 + 1, q2);
+    orderStatuses.forEach(
+        (orderId, status) -> {
+          OrderEntity order = orders.get(orderId);
+          events.publishEvent(
+              new OrderStatusChangedEvent(
+                  orderId, order.getTenantId(), order.getAmount(), order.getStatus(), status));
+        });
   }
 }
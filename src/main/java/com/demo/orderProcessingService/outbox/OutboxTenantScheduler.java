@@ -0,0 +1,224 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Splits each claim batch across tenants with pending work by deficit round robin: every round a
+ * tenant earns credit in proportion to its weight and may claim as many events as it has credit
+ * for, up to its pending estimate and its max-in-flight room. Slots a tenant cannot use go to the
+ * others, so one large tenant still gets all spare capacity while a small tenant's events are
+ * claimed within a batch or two of arriving, instead of after the whole FIFO backlog.
+ *
+ * <p>Pending estimates come from the {@link OutboxBacklogMonitor} snapshot, raised by commits that
+ * enqueue events and lowered by claims. Only the single poller thread calls {@link #plan} and
+ * {@link #claimed}.
+ */
+@Component
+public class OutboxTenantScheduler {
+
+  // key used for events without a tenant; claimed with "tenant_id is null"
+  private static final String NO_TENANT = OutboxMetrics.UNKNOWN_TENANT;
+
+  private final OutboxBacklogMonitor backlogMonitor;
+  private final boolean enabled;
+  private final int defaultWeight;
+  private final int defaultMaxInFlight;
+  private final Map<String, Integer> weights;
+  private final Map<String, Integer> maxInFlight;
+
+  private final Map<String, Long> pending = new HashMap<>();
+  private final Map<String, Double> deficit = new HashMap<>();
+  private final Map<String, Long> enqueued = new ConcurrentHashMap<>();
+  private Map<String, OutboxBacklogMonitor.TenantBacklog> lastSnapshot;
+  private int rotation;
+
+  public OutboxTenantScheduler(
+      OutboxBacklogMonitor backlogMonitor,
+      Environment environment,
+      @Value("${outbox.scheduling.fair:true}") boolean enabled,
+      @Value("${outbox.scheduling.default-weight:1}") int defaultWeight,
+      @Value("${outbox.scheduling.default-max-in-flight:0}") int defaultMaxInFlight) {
+    if (defaultWeight < 1) {
+      throw new IllegalArgumentException("outbox.scheduling.default-weight must be positive");
+    }
+    this.backlogMonitor = backlogMonitor;
+    this.enabled = enabled;
+    this.defaultWeight = defaultWeight;
+    this.defaultMaxInFlight = defaultMaxInFlight;
+    Binder binder = Binder.get(environment);
+    Bindable<Map<String, Integer>> perTenant = Bindable.mapOf(String.class, Integer.class);
+    this.weights = Map.copyOf(binder.bind("outbox.scheduling.weights", perTenant).orElse(Map.of()));
+    this.maxInFlight =
+        Map.copyOf(binder.bind("outbox.scheduling.max-in-flight", perTenant).orElse(Map.of()));
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int weight(String tenantId) {
+    return Math.max(1, weights.getOrDefault(key(tenantId), defaultWeight));
+  }
+
+  /** Max events of the tenant queued or running on this node; 0 means unlimited. */
+  public int maxInFlight(String tenantId) {
+    return maxInFlight.getOrDefault(key(tenantId), defaultMaxInFlight);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onEventsEnqueued(OutboxEventsEnqueued enqueuedEvents) {
+    enqueued.merge(key(enqueuedEvents.tenantId()), (long) enqueuedEvents.count(), Long::sum);
+  }
+
+  /**
+   * How many events to claim per tenant for a batch of {@code batchSize}. Keys are tenant ids,
+   * {@code null} for events without one. The plan is empty when no tenant is known to have work or
+   * every such tenant is at its max-in-flight limit (see {@link #hasPendingWork()}).
+   */
+  public Map<String, Integer> plan(int batchSize, ToIntFunction<String> inFlight) {
+    refreshEstimates();
+
+    List<String> active = new ArrayList<>();
+    pending.forEach(
+        (tenant, count) -> {
+          if (count > 0) active.add(tenant);
+        });
+    if (active.isEmpty()) return Map.of();
+    active.sort(null);
+    // start each plan at a different tenant so ties do not always favour the same one
+    Collections.rotate(active, -(rotation++ % active.size()));
+
+    Map<String, Integer> room = new HashMap<>(active.size() * 2);
+    long totalWeight = 0;
+    for (String tenant : active) {
+      int limit = maxInFlight(tenant);
+      int free = limit > 0 ? limit - inFlight.applyAsInt(toTenantId(tenant)) : Integer.MAX_VALUE;
+      room.put(tenant, (int) Math.min(Math.max(free, 0), pending.get(tenant)));
+      totalWeight += weight(tenant);
+    }
+    double quantum = Math.max(1.0, (double) batchSize / totalWeight);
+
+    Map<String, Integer> quotas = new LinkedHashMap<>();
+    int slots = batchSize;
+    boolean progress = true;
+    while (slots > 0 && progress) {
+      progress = false;
+      for (String tenant : active) {
+        if (slots == 0) break;
+        int free = room.get(tenant) - quotas.getOrDefault(tenant, 0);
+        if (free <= 0) {
+          deficit.remove(tenant);
+          continue;
+        }
+        double credit = deficit.getOrDefault(tenant, 0.0) + weight(tenant) * quantum;
+        int give = (int) Math.min(Math.min((long) credit, slots), free);
+        deficit.put(tenant, credit - give);
+        if (give > 0) {
+          quotas.merge(tenant, give, Integer::sum);
+          slots -= give;
+        }
+        progress = true;
+      }
+    }
+
+    Map<String, Integer> plan = new LinkedHashMap<>(quotas.size() * 2);
+    quotas.forEach((tenant, quota) -> plan.put(toTenantId(tenant), quota));
+    return plan;
+  }
+
+  /** Records what a plan actually claimed; a short claim means the tenant has run dry. */
+  public void claimed(Map<String, Integer> plan, Map<String, List<Long>> claimed) {
+    plan.forEach(
+        (tenantId, quota) -> {
+          String tenant = key(tenantId);
+          int got = claimed.getOrDefault(tenantId, List.of()).size();
+          if (got < quota) {
+            pending.put(tenant, 0L);
+            deficit.remove(tenant);
+          } else {
+            pending.computeIfPresent(tenant, (t, n) -> Math.max(0, n - got));
+          }
+        });
+  }
+
+  /** Claimed events that went back to PENDING without being processed. */
+  public void released(Map<Long, OutboxEventRoute> routes, List<Long> ids) {
+    for (Long id : ids) {
+      OutboxEventRoute route = routes.get(id);
+      pending.merge(key(route != null ? route.tenantId() : null), 1L, Long::sum);
+    }
+  }
+
+  /** True if some tenant is estimated to have pending events, even if none may claim now. */
+  public boolean hasPendingWork() {
+    for (long count : pending.values()) {
+      if (count > 0) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Backlog, in-flight work, throughput and scheduling settings per tenant, for every tenant with a
+   * backlog or work on this node.
+   */
+  public List<OutboxTenantStatus> status(Map<String, Integer> inFlightByTenant) {
+    Map<String, OutboxBacklogMonitor.TenantBacklog> backlog = backlogMonitor.snapshot();
+    Map<String, Double> throughput = backlogMonitor.throughput();
+    Set<String> tenants = new TreeSet<>(backlog.keySet());
+    tenants.addAll(inFlightByTenant.keySet());
+    Instant now = Instant.now();
+    List<OutboxTenantStatus> status = new ArrayList<>(tenants.size());
+    for (String tenant : tenants) {
+      OutboxBacklogMonitor.TenantBacklog b = backlog.get(tenant);
+      status.add(
+          new OutboxTenantStatus(
+              tenant,
+              b != null ? b.pending() : 0,
+              b != null ? b.inProgress() : 0,
+              b != null ? b.oldestPendingAge(now).toMillis() / 1e3 : 0,
+              inFlightByTenant.getOrDefault(tenant, 0),
+              throughput.getOrDefault(tenant, 0.0),
+              weight(tenant),
+              maxInFlight(tenant)));
+    }
+    return status;
+  }
+
+  private void refreshEstimates() {
+    Map<String, OutboxBacklogMonitor.TenantBacklog> snapshot = backlogMonitor.snapshot();
+    if (snapshot != lastSnapshot) {
+      lastSnapshot = snapshot;
+      pending.clear();
+      snapshot.forEach((tenant, backlog) -> pending.put(tenant, backlog.pending()));
+    }
+    for (String tenant : List.copyOf(enqueued.keySet())) {
+      Long added = enqueued.remove(tenant);
+      if (added != null) pending.merge(tenant, added, Long::sum);
+    }
+  }
+
+  private static String key(String tenantId) {
+    return tenantId != null ? tenantId : NO_TENANT;
+  }
+
+  private static String toTenantId(String key) {
+    return NO_TENANT.equals(key) ? null : key;
+  }
+}
@@ -0,0 +1,15 @@
+package com.demo.orderProcessingService.outbox;
+
+/**
+ * Outbox state of one tenant for the admin view. Backlog figures are database-wide as of the last
+ * backlog refresh; {@code inFlight} and {@code finishedPerSecond} are for this node.
+ */
+public record OutboxTenantStatus(
+    String tenantId,
+    long pending,
+    long inProgress,
+    double oldestPendingAgeSeconds,
+    int inFlight,
+    double finishedPerSecond,
+    int weight,
+    int maxInFlight) {}
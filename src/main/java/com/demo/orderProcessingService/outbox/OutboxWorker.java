@@ -1,44 +1,188 @@
 package com.demo.orderProcessingService.outbox;
 
+import java.util.ArrayList;
 import java.util.List;
-import org.springframework.scheduling.annotation.Scheduled;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Claims pending events and hands them to the {@link OutboxWorkerPool}. Polls back-to-back while
+ * full claims are dispatched, waits at least {@code poll-interval-min-ms} whenever the pool is
+ * full, backs off exponentially up to {@code poll-interval-max-ms} while idle, and is woken
+ * immediately when an order transaction that wrote outbox events commits.
+ */
 @Component
-public class OutboxWorker {
+@ConditionalOnProperty(name = "outbox.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxWorker implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxWorker.class);
 
-  private final OutboxRepository outboxRepository;
   private final OutboxService outboxService;
+  private final OutboxWorkerPool workerPool;
+  private final OutboxTenantScheduler scheduler;
   private final int batchSize;
+  private final long minIntervalMs;
+  private final long maxIntervalMs;
+  private final Semaphore wakeups = new Semaphore(0);
+
+  private volatile boolean running;
+  private Thread thread;
 
   public OutboxWorker(
-      OutboxRepository outboxRepository,
       OutboxService outboxService,
-      @org.springframework.beans.factory.annotation.Value("${outbox.worker.batch-size:10}")
-          int batchSize) {
-    this.outboxRepository = outboxRepository;
+      OutboxWorkerPool workerPool,
+      OutboxTenantScheduler scheduler,
+      @Value("${outbox.worker.batch-size:10}") int batchSize,
+      @Value("${outbox.worker.poll-interval-min-ms:5}") long minIntervalMs,
+      @Value("${outbox.worker.poll-interval-max-ms:${outbox.worker.poll-interval-ms:3000}}")
+          long maxIntervalMs) {
     this.outboxService = outboxService;
+    this.workerPool = workerPool;
+    this.scheduler = scheduler;
     this.batchSize = batchSize;
+    this.minIntervalMs = Math.max(1, minIntervalMs);
+    this.maxIntervalMs = Math.max(this.minIntervalMs, maxIntervalMs);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onEventsEnqueued(OutboxEventsEnqueued enqueued) {
+    wakeup();
   }
 
-  @Scheduled(fixedDelayString = "${outbox.worker.poll-interval-ms:3000}")
-  public void poll() {
-    // 1) pick pending events
-    List<OutboxEvent> pending =
-        outboxRepository.findByStatusOrderByCreatedAtAsc(OutboxEvent.Status.PENDING);
-    if (pending.isEmpty()) return;
+  /** Ask the worker to poll now instead of waiting out its current backoff. */
+  public void wakeup() {
+    if (wakeups.availablePermits() == 0) wakeups.release();
+  }
+
+  /** Events handed to the pool by one poll, and those it had no room for (-1: pool full). */
+  record Polled(int dispatched, int rejected) {
+    static final Polled FULL = new Polled(0, -1);
+  }
 
-    pending.stream().limit(batchSize).forEach(this::claimAndProcessSafe);
+  /**
+   * Claims one batch and dispatches it. Returns the number of events dispatched, or -1 when the
+   * pool had no room to take more work.
+   */
+  public int poll() {
+    Polled polled = pollOnce();
+    return polled.rejected() < 0 ? -1 : polled.dispatched();
   }
 
-  private void claimAndProcessSafe(OutboxEvent e) {
+  Polled pollOnce() {
+    // never claim more than the pool can queue, so nothing claimed has to be handed back
+    int limit = Math.min(batchSize, workerPool.freeCapacity());
+    if (limit == 0) return Polled.FULL;
+
+    // 1) claim pending events, shared fairly across tenants; only their ids come back
+    List<Long> claimed = claim(limit);
+    if (claimed.isEmpty()) return new Polled(0, 0);
+
+    // 2) hand them to the partitions; anything that does not fit goes back to PENDING
+    Map<Long, OutboxEventRoute> routes = outboxService.routesFor(claimed);
+    List<Long> rejected = workerPool.dispatch(claimed, routes);
+    if (!rejected.isEmpty()) {
+      outboxService.releaseClaims(rejected);
+      scheduler.released(routes, rejected);
+    }
+    return new Polled(claimed.size() - rejected.size(), rejected.size());
+  }
+
+  private List<Long> claim(int limit) {
+    if (!scheduler.isEnabled()) return outboxService.claimBatch(limit);
+    Map<String, Integer> plan = scheduler.plan(limit, workerPool::inFlight);
+    if (plan.isEmpty()) {
+      // no tenant known to have work (e.g. before the first backlog snapshot): plain FIFO, which
+      // also picks up anything the estimates missed
+      return scheduler.hasPendingWork() ? List.of() : outboxService.claimBatch(limit);
+    }
+
+    Map<String, List<Long>> byTenant = outboxService.claimForTenants(plan);
+    scheduler.claimed(plan, byTenant);
+    List<Long> claimed = new ArrayList<>(limit);
+    byTenant.values().forEach(claimed::addAll);
+    return claimed;
+  }
+
+  private void loop() {
+    long delay = minIntervalMs;
+    while (running) {
+      Polled polled;
+      try {
+        polled = pollOnce();
+      } catch (Exception ex) {
+        log.warn("Outbox poll failed", ex);
+        polled = new Polled(0, 0);
+      }
+
+      delay = nextDelay(delay, polled);
+      if (delay == 0) {
+        delay = minIntervalMs;
+        continue;
+      }
+
+      try {
+        if (polled.rejected() != 0) {
+          // the pool is full: give it time to drain before claiming again, even if a commit asks
+          // for a poll sooner
+          Thread.sleep(delay);
+        } else if (wakeups.tryAcquire(delay, TimeUnit.MILLISECONDS)) {
+          wakeups.drainPermits();
+          delay = minIntervalMs;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * How long to wait after {@code polled}, given the previous wait: 0 after a full batch (there is
+   * more waiting), the minimum while there is work or the pool is full, and twice the previous wait
+   * up to the maximum while idle.
+   */
+  long nextDelay(long previous, Polled polled) {
+    if (polled.rejected() == 0 && polled.dispatched() >= batchSize) return 0;
+    boolean busy = polled.dispatched() != 0 || polled.rejected() != 0;
+    return busy ? minIntervalMs : Math.min(previous * 2, maxIntervalMs);
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    thread = new Thread(this::loop, "outbox-poller");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    wakeup();
     try {
-      boolean claimed = outboxService.tryClaimEvent(e.getId());
-      if (!claimed) return;
-      outboxService.processEvent(e.getId());
-    } catch (Exception ex) {
-      System.err.println("Failed processing outbox event " + e.getId() + ": " + ex.getMessage());
-      ex.printStackTrace();
+      if (thread != null) thread.join(maxIntervalMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /** Stop claiming before the pool stops accepting, so nothing is claimed into a closed pool. */
+  @Override
+  public int getPhase() {
+    return workerPool.getPhase() + 1;
+  }
 }
@@ -0,0 +1,291 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs claimed outbox events on a fixed set of partitions. Events are routed by order id, and each
+ * partition drains its queue on a single thread, so two events for the same order never run
+ * concurrently while different partitions proceed in parallel (bounded by {@code concurrency}). The
+ * pool holds at most {@code partitions * queue-depth * batch-size} events queued or running; the
+ * poller claims no more than {@link #freeCapacity()}, so whatever it claims can be queued.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxWorkerPool implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxWorkerPool.class);
+
+  private final OutboxService outboxService;
+  private final boolean batchProcessing;
+  private final boolean virtualThreads;
+  private final long shutdownTimeoutMs;
+  private final Semaphore permits;
+  // one per event queued or running
+  private final Semaphore capacity;
+  private final List<Partition> partitions;
+  // every event this node has claimed and not finished (id -> tenant), so their leases can be
+  // renewed and in-flight work counted per tenant
+  private final Map<Long, String> held = new ConcurrentHashMap<>();
+  // tenants are dropped once nothing of theirs is in flight, so this only holds active ones
+  private final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+  private volatile boolean running;
+
+  public OutboxWorkerPool(
+      OutboxService outboxService,
+      @Value("${outbox.worker.partitions:4}") int partitionCount,
+      @Value("${outbox.worker.concurrency:4}") int concurrency,
+      @Value("${outbox.worker.queue-depth:4}") int queueDepth,
+      @Value("${outbox.worker.batch-size:10}") int batchSize,
+      @Value("${outbox.worker.virtual-threads:true}") boolean virtualThreads,
+      @Value("${outbox.worker.batch-processing:true}") boolean batchProcessing,
+      @Value("${outbox.worker.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+    if (partitionCount < 1 || concurrency < 1 || queueDepth < 1 || batchSize < 1) {
+      throw new IllegalArgumentException(
+          "outbox.worker.partitions, concurrency, queue-depth and batch-size must be positive");
+    }
+    this.outboxService = outboxService;
+    this.batchProcessing = batchProcessing;
+    this.virtualThreads = virtualThreads;
+    this.shutdownTimeoutMs = shutdownTimeoutMs;
+    this.permits = new Semaphore(concurrency);
+    this.capacity = new Semaphore(partitionCount * queueDepth * batchSize);
+    this.partitions = new ArrayList<>(partitionCount);
+    for (int i = 0; i < partitionCount; i++) {
+      partitions.add(new Partition(i));
+    }
+  }
+
+  /** Stops after the {@link OutboxWorker} and after the web server has drained requests. */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  /** How many more events {@link #dispatch} accepts right now; 0 once stopped. */
+  public int freeCapacity() {
+    return running ? capacity.availablePermits() : 0;
+  }
+
+  /** Events of {@code tenantId} queued or running on this node ({@code null}: no tenant). */
+  public int inFlight(String tenantId) {
+    return inFlight.getOrDefault(tenantKey(tenantId), 0);
+  }
+
+  /** Tenants with work queued or running on this node, and how much. */
+  public Map<String, Integer> inFlightByTenant() {
+    return new HashMap<>(inFlight);
+  }
+
+  /**
+   * Routes claimed events to their partitions, preserving claim order within each partition.
+   * Returns the ids that could not be queued (pool stopped, or more events than {@link
+   * #freeCapacity()}); the caller should hand them back to PENDING.
+   */
+  public List<Long> dispatch(List<Long> eventIds, Map<Long, OutboxEventRoute> routes) {
+    List<List<Long>> chunks = new ArrayList<>(partitions.size());
+    for (int i = 0; i < partitions.size(); i++) chunks.add(new ArrayList<>());
+    for (Long id : eventIds) {
+      OutboxEventRoute route = routes.get(id);
+      String key = route != null ? route.orderId() : null;
+      int hash = key != null ? key.hashCode() : id.hashCode();
+      chunks.get(Math.floorMod(hash, partitions.size())).add(id);
+    }
+
+    List<Long> rejected = new ArrayList<>();
+    for (int i = 0; i < chunks.size(); i++) {
+      List<Long> chunk = chunks.get(i);
+      if (chunk.isEmpty()) continue;
+      for (Long id : chunk) {
+        OutboxEventRoute route = routes.get(id);
+        hold(id, route != null ? route.tenantId() : null);
+      }
+      if (!running || !capacity.tryAcquire(chunk.size())) {
+        release(chunk);
+        rejected.addAll(chunk);
+      } else {
+        partitions.get(i).queue.add(chunk);
+      }
+    }
+    return rejected;
+  }
+
+  private void hold(Long id, String tenantId) {
+    String tenant = tenantKey(tenantId);
+    held.put(id, tenant);
+    inFlight.merge(tenant, 1, Integer::sum);
+  }
+
+  private void release(List<Long> ids) {
+    for (Long id : ids) {
+      String tenant = held.remove(id);
+      if (tenant == null) continue;
+      inFlight.computeIfPresent(tenant, (t, count) -> count > 1 ? count - 1 : null);
+    }
+  }
+
+  private static String tenantKey(String tenantId) {
+    return tenantId != null ? tenantId : OutboxMetrics.UNKNOWN_TENANT;
+  }
+
+  /**
+   * Renews the leases of queued and running events well before they expire, so a long queue or a
+   * slow batch is not swept back to PENDING while this node still intends to process it.
+   */
+  @Scheduled(
+      fixedDelayString = "${outbox.lease.renew-interval-ms:20000}",
+      initialDelayString = "${outbox.lease.renew-interval-ms:20000}")
+  public void renewLeases() {
+    if (!running || held.isEmpty()) return;
+    try {
+      outboxService.renewLeases(List.copyOf(held.keySet()));
+    } catch (Exception ex) {
+      log.warn("Could not renew {} outbox leases: {}", held.size(), ex.getMessage());
+    }
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    for (Partition p : partitions) {
+      String name = "outbox-partition-" + p.index;
+      p.thread =
+          virtualThreads
+              ? Thread.ofVirtual().name(name).start(p)
+              : Thread.ofPlatform().name(name).daemon().start(p);
+    }
+  }
+
+  /**
+   * Stops accepting work, lets in-flight chunks finish within the shutdown timeout and hands every
+   * chunk that never started back to PENDING.
+   */
+  @Override
+  public void stop() {
+    running = false;
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+    for (Partition p : partitions) {
+      try {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (p.thread != null && remaining > 0) p.thread.join(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    List<Long> unfinished = new ArrayList<>();
+    for (Partition p : partitions) {
+      List<List<Long>> left = new ArrayList<>();
+      p.queue.drainTo(left);
+      left.forEach(unfinished::addAll);
+    }
+    capacity.release(unfinished.size());
+    held.clear();
+    inFlight.clear();
+    if (!unfinished.isEmpty()) {
+      try {
+        outboxService.releaseClaims(unfinished);
+      } catch (Exception ex) {
+        // the in-progress timeout will recover them
+        log.warn("Could not release {} outbox claims: {}", unfinished.size(), ex.getMessage());
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void process(List<Long> eventIds) {
+    if (batchProcessing) {
+      processBatchSafe(eventIds);
+    } else {
+      eventIds.forEach(this::processSafe);
+    }
+  }
+
+  private void processBatchSafe(List<Long> eventIds) {
+    try {
+      outboxService.processBatch(eventIds);
+    } catch (Exception ex) {
+      // the batch rolled back as a whole; retry event by event so one bad row cannot stall it
+      log.warn("Batch of {} outbox events failed: {}", eventIds.size(), ex.getMessage());
+      eventIds.forEach(this::processSafe);
+    }
+  }
+
+  private void processSafe(Long eventId) {
+    try {
+      outboxService.processEvent(eventId);
+    } catch (Exception ex) {
+      log.error("Failed processing outbox event {}", eventId, ex);
+      recordFailure(eventId, ex);
+    }
+  }
+
+  private void recordFailure(Long eventId, Exception error) {
+    try {
+      outboxService.recordFailure(List.of(eventId), error);
+    } catch (Exception ex) {
+      // the lease sweeper will count the attempt when the lease runs out
+      log.warn("Could not record failure of outbox event {}: {}", eventId, ex.getMessage());
+    }
+  }
+
+  private final class Partition implements Runnable {
+    private final int index;
+    // bounded by the pool's capacity
+    private final BlockingQueue<List<Long>> queue = new LinkedBlockingQueue<>();
+    private Thread thread;
+
+    Partition(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        List<Long> chunk;
+        try {
+          chunk = queue.poll(100, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        if (chunk == null) continue;
+        try {
+          permits.acquire();
+        } catch (InterruptedException e) {
+          // leave it for stop() to release
+          queue.offer(chunk);
+          Thread.currentThread().interrupt();
+          return;
+        }
+        try {
+          process(chunk);
+        } finally {
+          permits.release();
+          release(chunk);
+          capacity.release(chunk.size());
+        }
+      }
+    }
+  }
+}
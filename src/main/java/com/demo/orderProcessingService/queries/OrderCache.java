@@ -0,0 +1,62 @@
+package com.demo.orderProcessingService.queries;
+
+import com.demo.orderProcessingService.domain.OrderStatusChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded read-through cache of {@link OrderView}s keyed by order id. Entries are dropped after the
+ * transaction that changes an order's status commits; a load racing with that commit finishes
+ * before the invalidation removes it, so a stale PENDING cannot outlive the commit. Hit, miss and
+ * eviction counts are published as {@code cache.*} metrics with {@code cache=orders}.
+ */
+@Component
+public class OrderCache {
+
+  private final boolean enabled;
+  private final Cache<String, OrderView> cache;
+
+  public OrderCache(
+      MeterRegistry meterRegistry,
+      @Value("${orders.cache.enabled:true}") boolean enabled,
+      @Value("${orders.cache.max-size:10000}") long maxSize,
+      @Value("${orders.cache.ttl:30s}") Duration ttl) {
+    this.enabled = enabled;
+    this.cache =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders");
+  }
+
+  public Optional<OrderView> get(String id, Function<String, Optional<OrderView>> loader) {
+    if (!enabled) return loader.apply(id);
+    // absent orders are not cached, so a freshly created order is visible immediately
+    return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+  }
+
+  public void invalidate(String id) {
+    cache.invalidate(id);
+  }
+
+  /** Runs before other after-commit listeners so they read the new status, not the cached one. */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onStatusChanged(OrderStatusChangedEvent event) {
+    invalidate(event.orderId());
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+}
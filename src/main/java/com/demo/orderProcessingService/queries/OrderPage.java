@@ -0,0 +1,6 @@
+package com.demo.orderProcessingService.queries;
+
+import java.util.List;
+
+/** One page of a listing; pass {@code nextCursor} back for the next one (null on the last page). */
+public record OrderPage(List<OrderSummary> orders, String nextCursor) {}
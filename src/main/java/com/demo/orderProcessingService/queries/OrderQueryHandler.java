@@ -2,18 +2,84 @@ package com.demo.orderProcessingService.queries;
 
 import com.demo.orderProcessingService.domain.OrderEntity;
 import com.demo.orderProcessingService.repository.OrderRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 @Service
 public class OrderQueryHandler {
+  // ids are non-empty, so (from, "") sorts before every order created at from
+  private static final String BEFORE_ANY_ID = "";
+
   private final OrderRepository orderRepository;
+  private final OrderCache orderCache;
 
-  public OrderQueryHandler(OrderRepository orderRepository) {
+  public OrderQueryHandler(OrderRepository orderRepository, OrderCache orderCache) {
     this.orderRepository = orderRepository;
+    this.orderCache = orderCache;
+  }
+
+  public Optional<OrderView> getById(String id) {
+    return orderCache.get(id, this::load);
+  }
+
+  /**
+   * Orders of one tenant and status created in {@code [from, to)}, oldest first, {@code limit} at a
+   * time. Pages are chained by an opaque cursor holding the last row's (created_at, id) rather than
+   * an offset. Throws IllegalArgumentException for a cursor this handler did not produce.
+   */
+  public OrderPage list(
+      String tenantId,
+      OrderEntity.OrderStatus status,
+      Instant from,
+      Instant to,
+      int limit,
+      String cursor) {
+    Instant afterCreatedAt = from;
+    String afterId = BEFORE_ANY_ID;
+    if (cursor != null) {
+      String[] position = decodeCursor(cursor);
+      afterCreatedAt = Instant.parse(position[0]);
+      afterId = position[1];
+      if (afterCreatedAt.isBefore(from)) {
+        throw new IllegalArgumentException("cursor does not belong to this time range");
+      }
+    }
+    // one extra row tells whether there is a next page
+    List<OrderSummary> rows =
+        orderRepository.findPage(
+            tenantId, status, afterCreatedAt, afterId, to, PageRequest.of(0, limit + 1));
+    if (rows.size() <= limit) return new OrderPage(rows, null);
+    List<OrderSummary> page = rows.subList(0, limit);
+    OrderSummary last = page.get(limit - 1);
+    return new OrderPage(List.copyOf(page), encodeCursor(last.createdAt(), last.id()));
+  }
+
+  private Optional<OrderView> load(String id) {
+    return orderRepository.findById(id).map(OrderView::from);
+  }
+
+  static String encodeCursor(Instant createdAt, String id) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
   }
 
-  public Optional<OrderEntity> getById(String id) {
-    return orderRepository.findById(id);
+  static String[] decodeCursor(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int split = raw.indexOf('|');
+      if (split < 0) throw new IllegalArgumentException("malformed cursor");
+      String[] position = {raw.substring(0, split), raw.substring(split + 1)};
+      Instant.parse(position[0]);
+      return position;
+    } catch (DateTimeParseException ex) {
+      throw new IllegalArgumentException("malformed cursor", ex);
+    }
   }
 }
@@ -0,0 +1,113 @@
+package com.demo.orderProcessingService.queries;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.domain.OrderStatusChangedEvent;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Parks long-poll requests for an order until it reaches a terminal status. Waiters are plain
+ * {@link DeferredResult}s (no thread is held while waiting) and are completed in-process after the
+ * transaction that sets PROCESSED/FAILED commits; on timeout each waiter does a single read.
+ */
+@Component
+public class OrderStatusWaiters {
+
+  private final OrderQueryHandler queryHandler;
+  private final int maxWaiters;
+  private final long maxTimeoutMs;
+  private final Map<String, Queue<DeferredResult<ResponseEntity<?>>>> waiters =
+      new ConcurrentHashMap<>();
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  public OrderStatusWaiters(
+      OrderQueryHandler queryHandler,
+      @Value("${orders.wait.max-waiters:50000}") int maxWaiters,
+      @Value("${orders.wait.max-timeout-seconds:60}") long maxTimeoutSeconds) {
+    this.queryHandler = queryHandler;
+    this.maxWaiters = maxWaiters;
+    this.maxTimeoutMs = maxTimeoutSeconds * 1000;
+  }
+
+  public DeferredResult<ResponseEntity<?>> awaitTerminal(String orderId, long timeoutSeconds) {
+    // at least a second: a DeferredResult with a timeout of 0 would never time out
+    long timeoutMs = Math.max(1000, Math.min(timeoutSeconds * 1000, maxTimeoutMs));
+    DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeoutMs);
+    if (waiting.incrementAndGet() > maxWaiters) {
+      waiting.decrementAndGet();
+      result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+      return result;
+    }
+    result.onTimeout(() -> result.setResult(current(orderId)));
+    result.onCompletion(() -> remove(orderId, result));
+
+    // register before reading, so a commit landing in between still completes this waiter
+    waiters.compute(
+        orderId,
+        (id, queue) -> {
+          Queue<DeferredResult<ResponseEntity<?>>> q =
+              queue != null ? queue : new ConcurrentLinkedQueue<>();
+          q.add(result);
+          return q;
+        });
+
+    Optional<OrderView> view = queryHandler.getById(orderId);
+    if (view.isEmpty() || isTerminal(view.get().status())) {
+      result.setResult(toResponse(view));
+    }
+    return result;
+  }
+
+  /** Runs after {@link OrderCache} has dropped the entry, so the read below sees the new status. */
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onStatusChanged(OrderStatusChangedEvent event) {
+    if (!isTerminal(event.to())) return;
+    Queue<DeferredResult<ResponseEntity<?>>> queue = waiters.remove(event.orderId());
+    if (queue == null) return;
+    ResponseEntity<?> response = current(event.orderId());
+    for (DeferredResult<ResponseEntity<?>> result : queue) {
+      result.setResult(response);
+    }
+  }
+
+  public int waiting() {
+    return waiting.get();
+  }
+
+  private void remove(String orderId, DeferredResult<ResponseEntity<?>> result) {
+    waiting.decrementAndGet();
+    waiters.computeIfPresent(
+        orderId,
+        (id, queue) -> {
+          queue.remove(result);
+          return queue.isEmpty() ? null : queue;
+        });
+  }
+
+  private ResponseEntity<?> current(String orderId) {
+    return toResponse(queryHandler.getById(orderId));
+  }
+
+  private static ResponseEntity<?> toResponse(Optional<OrderView> view) {
+    return view.<ResponseEntity<?>>map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  private static boolean isTerminal(OrderEntity.OrderStatus status) {
+    return status == OrderEntity.OrderStatus.PROCESSED || status == OrderEntity.OrderStatus.FAILED;
+  }
+}
@@ -0,0 +1,14 @@
+package com.demo.orderProcessingService.queries;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import java.time.Instant;
+
+/** Flat listing row, selected column by column; never a managed entity. */
+public record OrderSummary(
+    String id,
+    String tenantId,
+    OrderEntity.OrderStatus status,
+    double amount,
+    int quantity,
+    Instant createdAt,
+    Instant updatedAt) {}
@@ -0,0 +1,17 @@
+package com.demo.orderProcessingService.queries;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+
+/** Immutable read-side snapshot of an order; safe to share across requests from the cache. */
+public record OrderView(
+    String id, String tenantId, double amount, int quantity, OrderEntity.OrderStatus status) {
+
+  public static OrderView from(OrderEntity order) {
+    return new OrderView(
+        order.getId(),
+        order.getTenantId(),
+        order.getAmount(),
+        order.getQuantity(),
+        order.getStatus());
+  }
+}
@@ -0,0 +1,349 @@
+package com.demo.orderProcessingService.queries;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.domain.OrderStatusChangedEvent;
+import com.demo.orderProcessingService.domain.OrdersCreatedEvent;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Per-tenant order count and amount by status, maintained incrementally instead of grouping over
+ * {@code orders}. Committed creates and status changes on this node go into per-tenant adders;
+ * every {@code orders.stats.checkpoint-interval-ms} they are added to {@code tenant_order_stats} as
+ * deltas (so instances sharing the database add up) and the table is read back. A read is the last
+ * table snapshot plus this node's unflushed deltas: a few counters per tenant, whatever the size of
+ * {@code orders}. Writers never lock: a checkpoint swaps in a fresh generation of adders per tenant
+ * and retires the old one, and a writer that finds its generation retired retries on the new one.
+ * Changes not yet checkpointed when a node dies are lost; {@link #rebuild()} recomputes everything.
+ */
+@Component
+public class TenantOrderStats implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(TenantOrderStats.class);
+  private static final OrderEntity.OrderStatus[] STATUSES = OrderEntity.OrderStatus.values();
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  // serialises checkpoint and rebuild without pinning a virtual thread during their writes
+  private final ReentrantLock writeLock = new ReentrantLock();
+  // committed on this node since the last checkpoint, one live generation per tenant
+  private final ConcurrentHashMap<String, Deltas> deltas = new ConcurrentHashMap<>();
+  // the table as of the last checkpoint, all nodes included
+  private volatile Map<String, Totals> checkpointed = Map.of();
+  // deltas detached by a checkpoint, still counted by readers until the table is reloaded
+  private volatile Map<String, Deltas> flushing = Map.of();
+  private volatile boolean running;
+
+  public TenantOrderStats(JdbcTemplate jdbc, TransactionTemplate tx) {
+    this.jdbc = jdbc;
+    this.tx = tx;
+  }
+
+  /** Stops after the worker pool, so the final checkpoint includes its last status changes. */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 8192;
+  }
+
+  @Override
+  public void start() {
+    checkpointed = load();
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    checkpoint();
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onCreated(OrdersCreatedEvent event) {
+    record(
+        event.tenantId(),
+        d -> d.add(OrderEntity.OrderStatus.PENDING, event.count(), event.amount()));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onStatusChanged(OrderStatusChangedEvent event) {
+    if (event.from() == event.to()) return;
+    record(
+        event.tenantId(),
+        d -> {
+          if (event.from() != null) d.add(event.from(), -1, -event.amount());
+          d.add(event.to(), 1, event.amount());
+        });
+  }
+
+  public Optional<TenantOrderTotals> get(String tenantId) {
+    Totals base = checkpointed.get(tenantId);
+    Deltas pending = flushing.get(tenantId);
+    Deltas d = deltas.get(tenantId);
+    if (base == null && pending == null && d == null) return Optional.empty();
+    return Optional.of(totals(tenantId, base, pending, d));
+  }
+
+  public List<TenantOrderTotals> all() {
+    Map<String, Totals> base = checkpointed;
+    Map<String, Deltas> pending = flushing;
+    Set<String> tenants = new HashSet<>(base.keySet());
+    tenants.addAll(pending.keySet());
+    tenants.addAll(deltas.keySet());
+    List<TenantOrderTotals> all = new ArrayList<>(tenants.size());
+    for (String tenant : tenants) {
+      all.add(totals(tenant, base.get(tenant), pending.get(tenant), deltas.get(tenant)));
+    }
+    return all;
+  }
+
+  @Scheduled(
+      fixedDelayString = "${orders.stats.checkpoint-interval-ms:5000}",
+      initialDelayString = "${orders.stats.checkpoint-interval-ms:5000}")
+  public void scheduledCheckpoint() {
+    if (running) checkpoint();
+  }
+
+  /**
+   * Adds this node's deltas to the table in one transaction and reloads it; on failure the deltas
+   * are kept for the next attempt.
+   */
+  public void checkpoint() {
+    writeLock.lock();
+    try {
+      flush();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void flush() {
+    Map<String, Deltas> detached = Map.copyOf(deltas);
+    // published before they leave the live map, so readers never miss them in between
+    flushing = detached;
+    Map<String, Totals> drained = new HashMap<>();
+    detached.forEach(
+        (tenant, d) -> {
+          // new writers start a fresh generation; then wait out the ones still adding to d
+          deltas.remove(tenant, d);
+          d.retire();
+          Totals t = d.sum();
+          if (t != null) drained.put(tenant, t);
+        });
+    if (!drained.isEmpty()) {
+      try {
+        try {
+          tx.executeWithoutResult(status -> write(drained, Instant.now()));
+        } catch (DuplicateKeyException ex) {
+          // another node inserted the same new row first; now it exists and merges as an update
+          tx.executeWithoutResult(status -> write(drained, Instant.now()));
+        }
+      } catch (RuntimeException ex) {
+        drained.forEach((tenant, t) -> record(tenant, d -> d.addAll(t)));
+        flushing = Map.of();
+        log.warn("Could not checkpoint tenant order stats: {}", ex.getMessage());
+        return;
+      }
+    }
+    checkpointed = load();
+    flushing = Map.of();
+  }
+
+  /**
+   * Recomputes the table from {@code orders} with one grouped query and drops unflushed deltas.
+   * Changes committed while it runs may be missed or counted twice, so run it when quiet.
+   */
+  public List<TenantOrderTotals> rebuild() {
+    writeLock.lock();
+    try {
+      return recompute();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private List<TenantOrderTotals> recompute() {
+    Timestamp now = Timestamp.from(Instant.now());
+    tx.executeWithoutResult(
+        status -> {
+          jdbc.update("delete from tenant_order_stats");
+          jdbc.update(
+              "insert into tenant_order_stats"
+                  + " (tenant_id, status, order_count, amount_sum, updated_at)"
+                  + " select tenant_id, status, count(*), coalesce(sum(amount), 0), ? from orders"
+                  + " group by tenant_id, status",
+              now);
+        });
+    deltas.clear();
+    checkpointed = load();
+    log.info("Rebuilt tenant order stats for {} tenants", checkpointed.size());
+    return all();
+  }
+
+  private void write(Map<String, Totals> drained, Instant now) {
+    Timestamp ts = Timestamp.from(now);
+    List<Object[]> rows = new ArrayList<>();
+    drained.forEach(
+        (tenant, t) -> {
+          for (int i = 0; i < STATUSES.length; i++) {
+            if (t.counts[i] == 0 && t.amounts[i] == 0) continue;
+            rows.add(new Object[] {tenant, STATUSES[i].name(), t.counts[i], t.amounts[i], ts});
+          }
+        });
+    jdbc.batchUpdate(
+        "merge into tenant_order_stats s using (select cast(? as varchar(64)) tenant_id,"
+            + " cast(? as varchar(16)) status, cast(? as bigint) order_count,"
+            + " cast(? as double precision) amount_sum, cast(? as timestamp) updated_at) d"
+            + " on s.tenant_id = d.tenant_id and s.status = d.status"
+            + " when matched then update set order_count = s.order_count + d.order_count,"
+            + " amount_sum = s.amount_sum + d.amount_sum, updated_at = d.updated_at"
+            + " when not matched then insert (tenant_id, status, order_count, amount_sum,"
+            + " updated_at) values (d.tenant_id, d.status, d.order_count, d.amount_sum,"
+            + " d.updated_at)",
+        rows);
+  }
+
+  private Map<String, Totals> load() {
+    Map<String, Totals> loaded = new HashMap<>();
+    jdbc.query(
+        "select tenant_id, status, order_count, amount_sum from tenant_order_stats",
+        rs -> {
+          Totals t = loaded.computeIfAbsent(rs.getString(1), k -> new Totals());
+          int i = OrderEntity.OrderStatus.valueOf(rs.getString(2)).ordinal();
+          t.counts[i] = rs.getLong(3);
+          t.amounts[i] = rs.getDouble(4);
+        });
+    return Map.copyOf(loaded);
+  }
+
+  private void record(String tenantId, Consumer<Deltas> change) {
+    while (true) {
+      Deltas d = deltas.computeIfAbsent(tenantId, t -> new Deltas());
+      if (d.enter()) {
+        try {
+          change.accept(d);
+        } finally {
+          d.exit();
+        }
+        return;
+      }
+      // a checkpoint retired d and took it out of the map; the next round gets a fresh one
+    }
+  }
+
+  private static TenantOrderTotals totals(String tenantId, Totals base, Deltas pending, Deltas d) {
+    // a checkpoint publishes an instance as flushing just before detaching it
+    if (pending == d) pending = null;
+    Map<OrderEntity.OrderStatus, TenantOrderTotals.Totals> byStatus =
+        new EnumMap<>(OrderEntity.OrderStatus.class);
+    for (int i = 0; i < STATUSES.length; i++) {
+      long count = base != null ? base.counts[i] : 0;
+      double amount = base != null ? base.amounts[i] : 0;
+      for (Deltas delta : new Deltas[] {pending, d}) {
+        if (delta == null) continue;
+        count += delta.counts[i].sum();
+        amount += delta.amounts[i].sum();
+      }
+      byStatus.put(STATUSES[i], new TenantOrderTotals.Totals(count, amount));
+    }
+    return new TenantOrderTotals(tenantId, byStatus);
+  }
+
+  private static final class Totals {
+    final long[] counts = new long[STATUSES.length];
+    final double[] amounts = new double[STATUSES.length];
+  }
+
+  /**
+   * Per-status adders: writers on different threads do not contend on one counter. Writers are
+   * counted in and out on adders too, so that {@link #retire()} can tell when the last one is done.
+   */
+  private static final class Deltas {
+    final LongAdder[] counts = new LongAdder[STATUSES.length];
+    final DoubleAdder[] amounts = new DoubleAdder[STATUSES.length];
+    final LongAdder entered = new LongAdder();
+    final LongAdder exited = new LongAdder();
+    volatile boolean retired;
+
+    Deltas() {
+      for (int i = 0; i < STATUSES.length; i++) {
+        counts[i] = new LongAdder();
+        amounts[i] = new DoubleAdder();
+      }
+    }
+
+    /** False when retired; the caller must not add and should retry on the next generation. */
+    boolean enter() {
+      entered.increment();
+      if (!retired) return true;
+      exited.increment();
+      return false;
+    }
+
+    void exit() {
+      exited.increment();
+    }
+
+    /**
+     * Turns writers away and waits for those already inside. A writer that missed the flag was
+     * counted in before it was set, so once every entry has a matching exit none is left. Both
+     * adders only grow, and exits are read before entries, so equal sums mean they were equal at
+     * one instant after the flag was set.
+     */
+    void retire() {
+      retired = true;
+      while (exited.sum() != entered.sum()) Thread.onSpinWait();
+    }
+
+    void add(OrderEntity.OrderStatus status, long count, double amount) {
+      counts[status.ordinal()].add(count);
+      amounts[status.ordinal()].add(amount);
+    }
+
+    void addAll(Totals t) {
+      for (int i = 0; i < STATUSES.length; i++) {
+        counts[i].add(t.counts[i]);
+        amounts[i].add(t.amounts[i]);
+      }
+    }
+
+    /** Everything added so far, null when there was nothing; call once nothing adds any more. */
+    Totals sum() {
+      Totals t = new Totals();
+      boolean any = false;
+      for (int i = 0; i < STATUSES.length; i++) {
+        t.counts[i] = counts[i].sum();
+        t.amounts[i] = amounts[i].sum();
+        any |= t.counts[i] != 0 || t.amounts[i] != 0;
+      }
+      return any ? t : null;
+    }
+  }
+}
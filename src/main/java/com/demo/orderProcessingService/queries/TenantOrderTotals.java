@@ -0,0 +1,10 @@
+package com.demo.orderProcessingService.queries;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import java.util.Map;
+
+/** Order count and amount per status for one tenant. */
+public record TenantOrderTotals(String tenantId, Map<OrderEntity.OrderStatus, Totals> byStatus) {
+
+  public record Totals(long count, double amount) {}
+}
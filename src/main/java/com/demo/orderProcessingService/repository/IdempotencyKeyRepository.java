@@ -0,0 +1,27 @@
+package com.demo.orderProcessingService.repository;
+
+import com.demo.orderProcessingService.domain.IdempotencyKey;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+  // uk_idempotency_tenant_key
+  Optional<IdempotencyKey> findByTenantIdAndKey(String tenantId, String key);
+
+  /** Oldest expired keys first, over idx_idempotency_expires. */
+  @Query("select k.id from IdempotencyKey k where k.expiresAt < ?1 order by k.expiresAt")
+  List<Long> findExpiredIds(Instant now, Pageable page);
+
+  @Modifying
+  @Query("delete from IdempotencyKey k where k.id in ?1")
+  int deleteByIds(Collection<Long> ids);
+}
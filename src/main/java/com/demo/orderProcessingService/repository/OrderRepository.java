@@ -1,8 +1,34 @@
 package com.demo.orderProcessingService.repository;
 
 import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.queries.OrderSummary;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface OrderRepository extends JpaRepository<OrderEntity, String> {}
+public interface OrderRepository extends JpaRepository<OrderEntity, String>, OrderStatusRepository {
+
+  /**
+   * Keyset page over idx_orders_tenant_status_created: orders created in {@code [afterCreatedAt,
+   * to)} that sort after {@code (afterCreatedAt, afterId)}, by creation time then id. The range on
+   * created_at bounds the index scan, so a deep page costs the same as the first one.
+   */
+  @Query(
+      "select new com.demo.orderProcessingService.queries.OrderSummary("
+          + "o.id, o.tenantId, o.status, o.amount, o.quantity, o.createdAt, o.updatedAt)"
+          + " from OrderEntity o"
+          + " where o.tenantId = ?1 and o.status = ?2 and o.createdAt >= ?3 and o.createdAt < ?5"
+          + " and (o.createdAt > ?3 or o.id > ?4)"
+          + " order by o.createdAt, o.id")
+  List<OrderSummary> findPage(
+      String tenantId,
+      OrderEntity.OrderStatus status,
+      Instant afterCreatedAt,
+      String afterId,
+      Instant to,
+      Pageable page);
+}
@@ -0,0 +1,12 @@
+package com.demo.orderProcessingService.repository;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import java.time.Instant;
+import java.util.Map;
+
+/** Bulk order status writes, issued as a single JDBC batch. */
+public interface OrderStatusRepository {
+
+  /** Sets each order to its mapped status as of {@code now}; returns the number of rows updated. */
+  int updateStatuses(Map<String, OrderEntity.OrderStatus> statuses, Instant now);
+}
@@ -0,0 +1,31 @@
+package com.demo.orderProcessingService.repository;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class OrderStatusRepositoryImpl implements OrderStatusRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public OrderStatusRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public int updateStatuses(Map<String, OrderEntity.OrderStatus> statuses, Instant now) {
+    if (statuses.isEmpty()) return 0;
+    Timestamp ts = Timestamp.from(now);
+    List<Object[]> args = new ArrayList<>(statuses.size());
+    statuses.forEach((id, status) -> args.add(new Object[] {status.name(), ts, id}));
+    int[] counts =
+        jdbcTemplate.batchUpdate("update orders set status = ?, updated_at = ? where id = ?", args);
+    int total = 0;
+    for (int c : counts) total += c < 0 ? 1 : c;
+    return total;
+  }
+}
@@ -0,0 +1,87 @@
+package com.demo.orderProcessingService.validation;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import java.util.List;
+
+/**
+ * A rule compiled by {@link TenantRuleCompiler}: an OR of AND-groups of {@code field op constant}
+ * comparisons, flattened into primitive arrays so evaluation allocates nothing.
+ */
+public final class CompiledTenantRule implements TenantOrderValidator {
+
+  static final int AMOUNT = 0;
+  static final int QUANTITY = 1;
+
+  static final int GT = 0;
+  static final int GE = 1;
+  static final int LT = 2;
+  static final int LE = 3;
+  static final int EQ = 4;
+  static final int NE = 5;
+
+  private final String source;
+  // comparison k belongs to the AND-group that ends at groupEnd[g] (exclusive)
+  private final int[] fields;
+  private final int[] ops;
+  private final double[] constants;
+  private final int[] groupEnds;
+
+  CompiledTenantRule(String source, int[] fields, int[] ops, double[] constants, int[] groupEnds) {
+    this.source = source;
+    this.fields = fields;
+    this.ops = ops;
+    this.constants = constants;
+    this.groupEnds = groupEnds;
+  }
+
+  @Override
+  public boolean validate(OrderEntity order) {
+    return matches(order.getAmount(), order.getQuantity());
+  }
+
+  @Override
+  public boolean[] validateBatch(List<OrderEntity> orders) {
+    boolean[] result = new boolean[orders.size()];
+    for (int i = 0; i < result.length; i++) {
+      OrderEntity order = orders.get(i);
+      result[i] = matches(order.getAmount(), order.getQuantity());
+    }
+    return result;
+  }
+
+  private boolean matches(double amount, int quantity) {
+    int k = 0;
+    for (int end : groupEnds) {
+      boolean all = true;
+      for (; k < end; k++) {
+        if (all && !compare(fields[k] == AMOUNT ? amount : quantity, ops[k], constants[k])) {
+          all = false;
+        }
+      }
+      if (all) return true;
+    }
+    return false;
+  }
+
+  private static boolean compare(double value, int op, double constant) {
+    switch (op) {
+      case GT:
+        return value > constant;
+      case GE:
+        return value >= constant;
+      case LT:
+        return value < constant;
+      case LE:
+        return value <= constant;
+      case EQ:
+        return value == constant;
+      default:
+        return value != constant;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return source;
+  }
+}
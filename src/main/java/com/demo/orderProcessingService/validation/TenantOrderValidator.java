@@ -1,7 +1,17 @@
 package com.demo.orderProcessingService.validation;
 
 import com.demo.orderProcessingService.domain.OrderEntity;
+import java.util.List;
 
 public interface TenantOrderValidator {
   boolean validate(OrderEntity order);
+
+  /** Validates orders of one tenant; {@code result[i]} is the verdict for {@code orders[i]}. */
+  default boolean[] validateBatch(List<OrderEntity> orders) {
+    boolean[] result = new boolean[orders.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = validate(orders.get(i));
+    }
+    return result;
+  }
 }
@@ -0,0 +1,94 @@
+package com.demo.orderProcessingService.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles tenant rules such as {@code amount > 100 && quantity > 10 || amount >= 1000}. Supported
+ * fields are {@code amount} and {@code quantity}, operators {@code > >= < <= == !=}, joined with
+ * {@code &&} (binds tighter) and {@code ||}. Parsing happens once; the result evaluates without
+ * allocation.
+ */
+public final class TenantRuleCompiler {
+
+  private TenantRuleCompiler() {}
+
+  /** Throws {@link IllegalArgumentException} describing the first problem in {@code rule}. */
+  public static CompiledTenantRule compile(String rule) {
+    if (rule == null || rule.isBlank()) throw new IllegalArgumentException("rule is empty");
+
+    List<Integer> fields = new ArrayList<>();
+    List<Integer> ops = new ArrayList<>();
+    List<Double> constants = new ArrayList<>();
+    List<Integer> groupEnds = new ArrayList<>();
+
+    for (String group : rule.split("\\|\\|", -1)) {
+      if (group.isBlank()) throw new IllegalArgumentException("empty '||' operand in: " + rule);
+      for (String comparison : group.split("&&", -1)) {
+        parseComparison(comparison.trim(), rule, fields, ops, constants);
+      }
+      groupEnds.add(fields.size());
+    }
+
+    int n = fields.size();
+    int[] f = new int[n];
+    int[] o = new int[n];
+    double[] c = new double[n];
+    for (int i = 0; i < n; i++) {
+      f[i] = fields.get(i);
+      o[i] = ops.get(i);
+      c[i] = constants.get(i);
+    }
+    int[] ends = groupEnds.stream().mapToInt(Integer::intValue).toArray();
+    return new CompiledTenantRule(rule.trim(), f, o, c, ends);
+  }
+
+  private static void parseComparison(
+      String comparison,
+      String rule,
+      List<Integer> fields,
+      List<Integer> ops,
+      List<Double> constants) {
+    if (comparison.isEmpty()) throw new IllegalArgumentException("empty '&&' operand in: " + rule);
+
+    int opStart = -1;
+    for (int i = 0; i < comparison.length(); i++) {
+      char ch = comparison.charAt(i);
+      if (ch == '>' || ch == '<' || ch == '=' || ch == '!') {
+        opStart = i;
+        break;
+      }
+    }
+    if (opStart <= 0) {
+      throw new IllegalArgumentException("expected 'field op value': " + comparison);
+    }
+    int opEnd =
+        opStart + 1 < comparison.length() && comparison.charAt(opStart + 1) == '='
+            ? opStart + 2
+            : opStart + 1;
+
+    String field = comparison.substring(0, opStart).trim();
+    String op = comparison.substring(opStart, opEnd);
+    String value = comparison.substring(opEnd).trim();
+
+    switch (field) {
+      case "amount" -> fields.add(CompiledTenantRule.AMOUNT);
+      case "quantity" -> fields.add(CompiledTenantRule.QUANTITY);
+      default -> throw new IllegalArgumentException("unknown field '" + field + "' in: " + rule);
+    }
+    switch (op) {
+      case ">" -> ops.add(CompiledTenantRule.GT);
+      case ">=" -> ops.add(CompiledTenantRule.GE);
+      case "<" -> ops.add(CompiledTenantRule.LT);
+      case "<=" -> ops.add(CompiledTenantRule.LE);
+      case "==" -> ops.add(CompiledTenantRule.EQ);
+      case "!=" -> ops.add(CompiledTenantRule.NE);
+      default -> throw new IllegalArgumentException("unknown operator '" + op + "' in: " + rule);
+    }
+    try {
+      constants.add(Double.parseDouble(value));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("expected a number, got '" + value + "' in: " + rule);
+    }
+  }
+}
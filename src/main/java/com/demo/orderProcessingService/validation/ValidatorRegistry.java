@@ -1,26 +1,126 @@
 package com.demo.orderProcessingService.validation;
 
 import com.demo.orderProcessingService.domain.OrderEntity;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Resolves the validator of a tenant. Tenants are served by validator beans and by rules declared
+ * in {@code tenant.rules.location} (one {@code tenantId=rule} per line, see {@link
+ * TenantRuleCompiler}); a declared rule overrides a bean of the same name. Rules are compiled once
+ * per load and published as one immutable map, so lookups never lock and a reload is atomic: a file
+ * that does not compile leaves the previous rules in force.
+ */
 @Component
 public class ValidatorRegistry {
 
-  private final Map<String, TenantOrderValidator> validators;
+  private static final Logger log = LoggerFactory.getLogger(ValidatorRegistry.class);
 
-  public ValidatorRegistry(Map<String, TenantOrderValidator> validators) {
-    this.validators = validators;
+  /** Used for tenants nobody has configured. */
+  static final TenantOrderValidator REJECT_ALL = order -> false;
+
+  private final Map<String, TenantOrderValidator> beans;
+  private final Resource rules;
+  // not synchronized: reading the file would pin a virtual thread to its carrier
+  private final ReentrantLock reloadLock = new ReentrantLock();
+
+  private volatile Map<String, TenantOrderValidator> validators;
+  private volatile long rulesModified = -1;
+
+  public ValidatorRegistry(
+      Map<String, TenantOrderValidator> validators,
+      ResourceLoader resourceLoader,
+      @Value("${tenant.rules.location:classpath:tenant-rules.properties}") String rulesLocation) {
+    this.beans = Map.copyOf(validators);
+    this.rules = resourceLoader.getResource(rulesLocation);
+    this.validators = this.beans;
+    reload();
   }
 
   public TenantOrderValidator get(String tenantId) {
-    TenantOrderValidator v = validators.get(tenantId);
-    if (v != null) return v;
-    return new TenantOrderValidator() {
-      @Override
-      public boolean validate(OrderEntity order) {
-        return false;
+    return validators.getOrDefault(tenantId, REJECT_ALL);
+  }
+
+  /** Validates orders of one tenant in a single call; {@code result[i]} belongs to orders[i]. */
+  public boolean[] validateBatch(String tenantId, List<OrderEntity> orders) {
+    return get(tenantId).validateBatch(orders);
+  }
+
+  /**
+   * Recompiles the rules file and swaps it in. Returns the compiled rule of each declared tenant;
+   * throws {@link IllegalArgumentException} without touching the current rules if any rule is
+   * invalid.
+   */
+  public Map<String, String> reload() {
+    reloadLock.lock();
+    try {
+      return compileRules();
+    } finally {
+      reloadLock.unlock();
+    }
+  }
+
+  private Map<String, String> compileRules() {
+    Map<String, TenantOrderValidator> next = new HashMap<>(beans);
+    Map<String, String> loaded = new HashMap<>();
+    long modified = -1;
+    if (rules.exists()) {
+      Properties declared = new Properties();
+      try (InputStream in = rules.getInputStream()) {
+        modified = lastModified();
+        declared.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not read tenant rules from " + rules, e);
       }
-    };
+      for (String tenantId : declared.stringPropertyNames()) {
+        CompiledTenantRule rule;
+        try {
+          rule = TenantRuleCompiler.compile(declared.getProperty(tenantId));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("tenant " + tenantId + ": " + e.getMessage(), e);
+        }
+        next.put(tenantId, rule);
+        loaded.put(tenantId, rule.toString());
+      }
+    }
+    validators = Map.copyOf(next);
+    rulesModified = modified;
+    log.info("Loaded {} tenant rules from {}", loaded.size(), rules.getDescription());
+    return loaded;
+  }
+
+  /** Picks up edits to a rules file on the file system; rules inside a jar never change. */
+  @Scheduled(
+      fixedDelayString = "${tenant.rules.refresh-interval-ms:10000}",
+      initialDelayString = "${tenant.rules.refresh-interval-ms:10000}")
+  public void reloadIfModified() {
+    if (!rules.isFile() || lastModified() == rulesModified) return;
+    try {
+      reload();
+    } catch (RuntimeException e) {
+      log.warn("Keeping previous tenant rules: {}", e.getMessage());
+    }
+  }
+
+  private long lastModified() {
+    try {
+      return rules.lastModified();
+    } catch (IOException e) {
+      return -1;
+    }
   }
 }
@@ -0,0 +1,110 @@
+package com.demo.orderProcessingService;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.outbox.OutboxBacklogMonitor;
+import com.demo.orderProcessingService.outbox.OutboxEvent;
+import com.demo.orderProcessingService.outbox.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "orders.admission.enabled=true",
+      "orders.admission.max-backlog=3",
+      "orders.admission.rate-per-second=0.2",
+      "orders.admission.burst-seconds=10",
+      "orders.admission.max-retry-after-seconds=30"
+    })
+public class AdmissionControlIntegrationTest {
+
+  @Autowired TestRestTemplate restTemplate;
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OutboxBacklogMonitor backlogMonitor;
+
+  @Autowired MeterRegistry meterRegistry;
+
+  @Test
+  public void tenant_over_its_rate_gets_429_until_tokens_refill() {
+    // a bucket of two tokens, refilled every five seconds
+    assertEquals(HttpStatus.ACCEPTED, create("burstTenant").getStatusCode());
+    assertEquals(HttpStatus.ACCEPTED, create("burstTenant").getStatusCode());
+
+    ResponseEntity<String> throttled = create("burstTenant");
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, throttled.getStatusCode());
+    long retryAfter = Long.parseLong(throttled.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertTrue(retryAfter >= 1 && retryAfter <= 5, "retry after " + retryAfter);
+
+    // other tenants have buckets of their own
+    assertEquals(HttpStatus.ACCEPTED, create("quietTenant").getStatusCode());
+  }
+
+  @Test
+  public void cached_replays_skip_admission() {
+    assertEquals(HttpStatus.ACCEPTED, create("replayTenant", "key-1").getStatusCode());
+    assertEquals(HttpStatus.ACCEPTED, create("replayTenant").getStatusCode());
+
+    // the bucket is empty now, but a retry of the first request is answered from memory
+    ResponseEntity<String> replay = create("replayTenant", "key-1");
+    assertEquals(HttpStatus.ACCEPTED, replay.getStatusCode());
+    assertEquals("true", replay.getHeaders().getFirst("Idempotent-Replayed"));
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, create("replayTenant", "key-2").getStatusCode());
+  }
+
+  @Test
+  public void batches_take_one_token_per_order() {
+    ResponseEntity<String> both = batch("batchTenant", 2);
+    assertEquals(HttpStatus.ACCEPTED, both.getStatusCode());
+
+    ResponseEntity<String> throttled = batch("batchTenant", 1);
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, throttled.getStatusCode());
+    assertNotNull(throttled.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, create("batchTenant").getStatusCode());
+  }
+
+  @Test
+  public void tenant_with_a_deep_outbox_backlog_is_shed() {
+    for (int i = 0; i < 3; i++) {
+      outboxRepository.save(
+          event(OutboxEvent.Status.PENDING)
+              .aggregateId("backlog-" + i)
+              .tenantId("laggingTenant")
+              .build());
+    }
+    backlogMonitor.refresh();
+
+    ResponseEntity<String> shed = create("laggingTenant");
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, shed.getStatusCode());
+    // nothing has been processed yet, so there is no drain rate to estimate from
+    assertEquals("30", shed.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertEquals(
+        1.0, meterRegistry.counter("orders.admission.rejected", "reason", "backlog").count());
+  }
+
+  private ResponseEntity<String> create(String tenantId) {
+    return create(tenantId, null);
+  }
+
+  private ResponseEntity<String> create(String tenantId, String idempotencyKey) {
+    var payload = Map.of("tenantId", tenantId, "amount", 150.0, "quantity", 2);
+    HttpHeaders headers = new HttpHeaders();
+    if (idempotencyKey != null) headers.set("Idempotency-Key", idempotencyKey);
+    return restTemplate.postForEntity(
+        "/api/v1/orders", new HttpEntity<>(payload, headers), String.class);
+  }
+
+  private ResponseEntity<String> batch(String tenantId, int orders) {
+    var payload = Collections.nCopies(orders, Map.of("tenantId", tenantId, "amount", 150.0));
+    return restTemplate.postForEntity("/api/v1/orders/batch", payload, String.class);
+  }
+}
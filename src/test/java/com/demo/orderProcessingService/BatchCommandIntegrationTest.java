@@ -0,0 +1,72 @@
+package com.demo.orderProcessingService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.outbox.OutboxEvent;
+import com.demo.orderProcessingService.outbox.OutboxRepository;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "orders.batch.max-size=3")
+public class BatchCommandIntegrationTest {
+
+  @Autowired TestRestTemplate restTemplate;
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void createBatch_returns_ids_in_request_order() {
+    var payload =
+        List.of(
+            Map.of("tenantId", "tenantA", "amount", 150.0, "quantity", 2),
+            Map.of("tenantId", "tenantB", "amount", 50.0, "quantity", 20),
+            Map.of("tenantId", "tenantA", "amount", 300.0, "quantity", 1));
+
+    ResponseEntity<Map> post =
+        restTemplate.postForEntity("/api/v1/orders/batch", payload, Map.class);
+    assertEquals(HttpStatus.ACCEPTED, post.getStatusCode());
+
+    List<String> ids = (List<String>) post.getBody().get("orderIds");
+    assertEquals(3, ids.size());
+    assertEquals("tenantB", orderRepository.findById(ids.get(1)).orElseThrow().getTenantId());
+    assertEquals(300.0, orderRepository.findById(ids.get(2)).orElseThrow().getAmount());
+    for (String id : ids) {
+      assertEquals(
+          OrderEntity.OrderStatus.PENDING, orderRepository.findById(id).orElseThrow().getStatus());
+    }
+    assertEquals(
+        3, outboxRepository.findByStatusOrderByCreatedAtAsc(OutboxEvent.Status.PENDING).size());
+  }
+
+  @Test
+  public void createBatch_rejects_malformed_or_oversized_batches() {
+    var missingTenant = List.of(Map.of("amount", 150.0, "quantity", 2));
+    assertEquals(
+        HttpStatus.BAD_REQUEST,
+        restTemplate
+            .postForEntity("/api/v1/orders/batch", missingTenant, String.class)
+            .getStatusCode());
+
+    var tooMany =
+        List.of(
+            Map.of("tenantId", "tenantA", "amount", 1.0, "quantity", 1),
+            Map.of("tenantId", "tenantA", "amount", 2.0, "quantity", 1),
+            Map.of("tenantId", "tenantA", "amount", 3.0, "quantity", 1),
+            Map.of("tenantId", "tenantA", "amount", 4.0, "quantity", 1));
+    assertEquals(
+        HttpStatus.BAD_REQUEST,
+        restTemplate.postForEntity("/api/v1/orders/batch", tooMany, String.class).getStatusCode());
+  }
+}
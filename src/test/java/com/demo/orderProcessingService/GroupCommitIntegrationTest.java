@@ -0,0 +1,83 @@
+package com.demo.orderProcessingService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.commands.CreateOrderCommand;
+import com.demo.orderProcessingService.commands.GroupCommitWriter;
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.outbox.OutboxBacklogMonitor;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(
+    properties = {
+      "orders.group-commit.enabled=true",
+      "orders.group-commit.window-us=20000",
+      "orders.group-commit.max-batch-size=50",
+      "orders.inline-validation.enabled=true"
+    })
+public class GroupCommitIntegrationTest {
+
+  @Autowired GroupCommitWriter writer;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Autowired MeterRegistry meterRegistry;
+
+  @Autowired OutboxBacklogMonitor backlogMonitor;
+
+  @Test
+  public void concurrent_creates_share_commits_and_each_gets_its_own_outcome() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(20);
+    List<Future<String>> results = new ArrayList<>();
+    try {
+      for (int i = 0; i < 20; i++) {
+        // one command without a tenant cannot be inserted
+        CreateOrderCommand cmd = new CreateOrderCommand(i == 7 ? null : "tenantA", 100.0 + i, 1);
+        results.add(pool.submit(() -> writer.create(cmd)));
+      }
+
+      List<String> ids = new ArrayList<>();
+      for (int i = 0; i < results.size(); i++) {
+        if (i == 7) {
+          assertThrows(ExecutionException.class, results.get(i)::get);
+        } else {
+          ids.add(results.get(i).get());
+        }
+      }
+      assertEquals(19, new HashSet<>(ids).size());
+      for (String id : ids) assertTrue(orderRepository.existsById(id));
+    } finally {
+      pool.shutdown();
+    }
+
+    DistributionSummary batches = meterRegistry.find("orders.commit.batch.size").summary();
+    assertNotNull(batches);
+    assertTrue(batches.max() > 1, "creates arriving together should be committed together");
+  }
+
+  @Test
+  public void group_committed_creates_are_still_validated_inline() {
+    backlogMonitor.refresh();
+    String accepted = writer.create(new CreateOrderCommand("tenantA", 150.0, 1));
+    String rejected = writer.create(new CreateOrderCommand("tenantA", 50.0, 1));
+
+    assertEquals(
+        OrderEntity.OrderStatus.PROCESSED,
+        orderRepository.findById(accepted).orElseThrow().getStatus());
+    assertEquals(
+        OrderEntity.OrderStatus.FAILED,
+        orderRepository.findById(rejected).orElseThrow().getStatus());
+  }
+}
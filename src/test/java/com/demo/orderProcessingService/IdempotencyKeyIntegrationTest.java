@@ -0,0 +1,112 @@
+package com.demo.orderProcessingService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.commands.IdempotencyKeys;
+import com.demo.orderProcessingService.domain.IdempotencyKey;
+import com.demo.orderProcessingService.outbox.OutboxRepository;
+import com.demo.orderProcessingService.repository.IdempotencyKeyRepository;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "orders.idempotency.ttl=1h")
+public class IdempotencyKeyIntegrationTest {
+
+  @Autowired TestRestTemplate restTemplate;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired IdempotencyKeyRepository keyRepository;
+
+  @Autowired IdempotencyKeys idempotencyKeys;
+
+  @Test
+  public void retries_with_the_same_key_get_the_original_order() throws Exception {
+    long orders = orderRepository.count();
+    long events = outboxRepository.count();
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    List<Future<ResponseEntity<String>>> posts = new ArrayList<>();
+    try {
+      Callable<ResponseEntity<String>> post = () -> create("tenantA", "retry-1");
+      for (int i = 0; i < 8; i++) posts.add(pool.submit(post));
+      List<String> ids = new ArrayList<>();
+      for (Future<ResponseEntity<String>> f : posts) {
+        assertEquals(HttpStatus.ACCEPTED, f.get().getStatusCode());
+        ids.add(orderId(f.get()));
+      }
+      assertEquals(1, ids.stream().distinct().count());
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(orders + 1, orderRepository.count());
+    assertEquals(events + 1, outboxRepository.count());
+
+    ResponseEntity<String> replay = create("tenantA", "retry-1");
+    assertEquals("true", replay.getHeaders().getFirst("Idempotent-Replayed"));
+
+    // the same key from another tenant is a different request
+    ResponseEntity<String> other = create("tenantB", "retry-1");
+    assertEquals("false", other.getHeaders().getFirst("Idempotent-Replayed"));
+    assertNotEquals(orderId(replay), orderId(other));
+  }
+
+  @Test
+  public void expired_keys_are_purged() {
+    Instant past = Instant.now().minusSeconds(10);
+    keyRepository.save(
+        IdempotencyKey.builder()
+            .tenantId("tenantA")
+            .key("expired")
+            .orderId("some-order")
+            .createdAt(past.minusSeconds(3600))
+            .expiresAt(past)
+            .build());
+
+    assertTrue(idempotencyKeys.purgeExpired() >= 1);
+    assertTrue(keyRepository.findByTenantIdAndKey("tenantA", "expired").isEmpty());
+  }
+
+  @Test
+  public void cached_keys_expire_with_their_row() {
+    Instant now = Instant.now();
+    idempotencyKeys.remember("tenantA", "cached-live", "live-order", now);
+    idempotencyKeys.remember("tenantA", "cached-stale", "stale-order", now.minusSeconds(3601));
+
+    assertEquals("live-order", idempotencyKeys.recent("tenantA", "cached-live").orElseThrow());
+    assertTrue(idempotencyKeys.recent("tenantA", "cached-stale").isEmpty());
+  }
+
+  @Test
+  public void malformed_keys_are_rejected() {
+    assertEquals(HttpStatus.BAD_REQUEST, create("tenantA", "x".repeat(256)).getStatusCode());
+  }
+
+  private ResponseEntity<String> create(String tenantId, String key) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set("Idempotency-Key", key);
+    var payload = Map.of("tenantId", tenantId, "amount", 150.0, "quantity", 2);
+    return restTemplate.postForEntity(
+        "/api/v1/orders", new HttpEntity<>(payload, headers), String.class);
+  }
+
+  private static String orderId(ResponseEntity<String> response) {
+    return response.getBody().replaceAll(".*\"orderId\"\\s*:\\s*\"([^\"]+)\".*", "$1");
+  }
+}
@@ -0,0 +1,66 @@
+package com.demo.orderProcessingService;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.commands.CreateOrderCommand;
+import com.demo.orderProcessingService.commands.OrderCommandHandler;
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.outbox.OutboxBacklogMonitor;
+import com.demo.orderProcessingService.outbox.OutboxEvent;
+import com.demo.orderProcessingService.outbox.OutboxRepository;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(
+    properties = {
+      "orders.inline-validation.enabled=true",
+      "orders.inline-validation.max-backlog=2",
+      // refreshed by the test only
+      "outbox.metrics.backlog-refresh-ms=600000"
+    })
+public class InlineValidationIntegrationTest {
+
+  @Autowired OrderCommandHandler handler;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OutboxBacklogMonitor backlogMonitor;
+
+  @Test
+  public void shallow_backlog_decides_in_the_request_and_deep_backlog_defers() {
+    // no snapshot yet, so the backlog is unknown
+    String unknown = handler.handle(new CreateOrderCommand("tenantA", 150.0, 1));
+    assertEquals(
+        OrderEntity.OrderStatus.PENDING,
+        orderRepository.findById(unknown).orElseThrow().getStatus());
+
+    backlogMonitor.refresh();
+    String accepted = handler.handle(new CreateOrderCommand("tenantA", 150.0, 1));
+    String rejected = handler.handle(new CreateOrderCommand("tenantA", 50.0, 1));
+
+    assertEquals(
+        OrderEntity.OrderStatus.PROCESSED,
+        orderRepository.findById(accepted).orElseThrow().getStatus());
+    assertEquals(
+        OrderEntity.OrderStatus.FAILED,
+        orderRepository.findById(rejected).orElseThrow().getStatus());
+    assertEquals(1, outboxRepository.countByStatus(OutboxEvent.Status.PENDING));
+    assertEquals(2, outboxRepository.countByStatus(OutboxEvent.Status.PROCESSED));
+
+    // with the deferred one above, two queued reach max-backlog
+    outboxRepository.save(
+        event(OutboxEvent.Status.PENDING).aggregateId("queued").tenantId("tenantA").build());
+    backlogMonitor.refresh();
+
+    String deferred = handler.handle(new CreateOrderCommand("tenantA", 150.0, 1));
+    assertEquals(
+        OrderEntity.OrderStatus.PENDING,
+        orderRepository.findById(deferred).orElseThrow().getStatus());
+    assertEquals(3, outboxRepository.countByStatus(OutboxEvent.Status.PENDING));
+  }
+}
@@ -0,0 +1,52 @@
+package com.demo.orderProcessingService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.commands.IngestReport;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "orders.ingest.chunk-size=2")
+public class OrderIngestIntegrationTest {
+
+  @Autowired TestRestTemplate restTemplate;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Test
+  public void ingest_commits_valid_lines_and_reports_bad_ones() {
+    String ndjson =
+        """
+        {"tenantId":"tenantA","amount":150.0,"quantity":2}
+        {"tenantId":"tenantB","amount":200.0,"quantity":20}
+        not json
+
+        {"amount":10.0,"quantity":1}
+        {"tenantId":"tenantA","amount":120.0,"quantity":3}
+        """;
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+    ResponseEntity<IngestReport> resp =
+        restTemplate.postForEntity(
+            "/api/v1/orders/ingest", new HttpEntity<>(ndjson, headers), IngestReport.class);
+
+    assertEquals(HttpStatus.OK, resp.getStatusCode());
+    IngestReport report = resp.getBody();
+    assertNotNull(report);
+    assertTrue(report.completed());
+    assertEquals(6, report.linesRead());
+    assertEquals(3, report.accepted());
+    assertEquals(2, report.rejected());
+    assertEquals(2, report.chunksCommitted());
+    assertEquals(3, report.errors().get(0).line());
+    assertEquals(5, report.errors().get(1).line());
+    assertEquals(3, orderRepository.count());
+  }
+}
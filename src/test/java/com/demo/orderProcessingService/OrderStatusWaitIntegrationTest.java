@@ -0,0 +1,67 @@
+package com.demo.orderProcessingService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.outbox.OutboxEvent;
+import com.demo.orderProcessingService.outbox.OutboxRepository;
+import com.demo.orderProcessingService.outbox.OutboxService;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class OrderStatusWaitIntegrationTest {
+
+  @Autowired TestRestTemplate restTemplate;
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OutboxService outboxService;
+
+  @Test
+  public void waitFor_terminal_times_out_then_completes_on_processing() throws Exception {
+    var payload = Map.of("tenantId", "tenantB", "amount", 150.0, "quantity", 2);
+    String body = restTemplate.postForEntity("/api/v1/orders", payload, String.class).getBody();
+    String id = body.replaceAll(".*\"orderId\"\\s*:\\s*\"([^\"]+)\".*", "$1");
+
+    // nothing processes the order yet: the wait falls back to the current state
+    var timedOut =
+        restTemplate.getForEntity(
+            "/api/v1/orders/" + id + "?waitFor=terminal&timeout=1", OrderEntity.class);
+    assertEquals(HttpStatus.OK, timedOut.getStatusCode());
+    assertEquals(OrderEntity.OrderStatus.PENDING, timedOut.getBody().getStatus());
+
+    CompletableFuture<ResponseEntity<OrderEntity>> waiting =
+        CompletableFuture.supplyAsync(
+            () ->
+                restTemplate.getForEntity(
+                    "/api/v1/orders/" + id + "?waitFor=terminal&timeout=30", OrderEntity.class));
+    Thread.sleep(300);
+    assertFalse(waiting.isDone());
+
+    OutboxEvent evt =
+        outboxRepository.findByStatusOrderByCreatedAtAsc(OutboxEvent.Status.PENDING).stream()
+            .filter(e -> id.equals(e.getAggregateId()))
+            .findFirst()
+            .orElseThrow();
+    assertTrue(outboxService.tryClaimEvent(evt.getId()));
+    outboxService.processEvent(evt.getId());
+
+    ResponseEntity<OrderEntity> done = waiting.get(5, TimeUnit.SECONDS);
+    assertEquals(HttpStatus.OK, done.getStatusCode());
+    assertEquals(OrderEntity.OrderStatus.FAILED, done.getBody().getStatus());
+  }
+
+  @Test
+  public void waitFor_rejects_non_positive_timeouts() {
+    var response =
+        restTemplate.getForEntity("/api/v1/orders/any?waitFor=terminal&timeout=0", String.class);
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+  }
+}
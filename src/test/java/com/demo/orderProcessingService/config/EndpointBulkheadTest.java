@@ -0,0 +1,85 @@
+package com.demo.orderProcessingService.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.commands.CreateOrderCommand;
+import com.demo.orderProcessingService.controller.BulkLoad;
+import com.demo.orderProcessingService.controller.CommandController;
+import com.demo.orderProcessingService.controller.QueryController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+public class EndpointBulkheadTest {
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+  private final EndpointBulkhead bulkhead =
+      new EndpointBulkhead("commands", CommandController.class, 1, 50, registry);
+  private HandlerMethod command;
+  private HandlerMethod create;
+  private HandlerMethod query;
+
+  @BeforeEach
+  public void handlers() throws Exception {
+    CommandController commands = new CommandController(null, null, null, null, 10);
+    command = new HandlerMethod(commands, "createBatch", List.class);
+    create = new HandlerMethod(commands, "create", CreateOrderCommand.class, String.class);
+    query = new HandlerMethod(new QueryController(null, null, null), "stats");
+  }
+
+  @Test
+  public void excess_requests_wait_then_get_503_and_permits_come_back() throws Exception {
+    MockHttpServletRequest first = new MockHttpServletRequest();
+    assertTrue(bulkhead.preHandle(first, new MockHttpServletResponse(), command));
+
+    MockHttpServletResponse rejected = new MockHttpServletResponse();
+    assertFalse(bulkhead.preHandle(new MockHttpServletRequest(), rejected, command));
+    assertEquals(503, rejected.getStatus());
+    assertEquals("1", rejected.getHeader("Retry-After"));
+    assertEquals(1.0, registry.counter("orders.bulkhead.rejected", "endpoint", "commands").count());
+
+    // other controllers are not limited by this bulkhead
+    assertTrue(
+        bulkhead.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), query));
+
+    bulkhead.afterCompletion(first, new MockHttpServletResponse(), command, null);
+    MockHttpServletRequest second = new MockHttpServletRequest();
+    assertTrue(bulkhead.preHandle(second, new MockHttpServletResponse(), command));
+  }
+
+  @Test
+  public void a_handler_filter_limits_only_the_matching_methods() throws Exception {
+    EndpointBulkhead bulk =
+        new EndpointBulkhead("bulk", m -> m.hasMethodAnnotation(BulkLoad.class), 1, 0, registry);
+    MockHttpServletRequest loading = new MockHttpServletRequest();
+    assertTrue(bulk.preHandle(loading, new MockHttpServletResponse(), command));
+    assertFalse(
+        bulk.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), command));
+
+    // single creates on the same controller are not held up by a running bulk load
+    assertTrue(bulk.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), create));
+  }
+
+  @Test
+  public void parked_async_requests_do_not_hold_a_permit() throws Exception {
+    MockHttpServletRequest polling = new MockHttpServletRequest();
+    assertTrue(bulkhead.preHandle(polling, new MockHttpServletResponse(), command));
+    bulkhead.afterConcurrentHandlingStarted(polling, new MockHttpServletResponse(), command);
+
+    MockHttpServletRequest other = new MockHttpServletRequest();
+    assertTrue(bulkhead.preHandle(other, new MockHttpServletResponse(), command));
+
+    // the dispatch writing the long-poll result neither takes nor returns a permit
+    polling.setDispatcherType(DispatcherType.ASYNC);
+    assertTrue(bulkhead.preHandle(polling, new MockHttpServletResponse(), command));
+    bulkhead.afterCompletion(polling, new MockHttpServletResponse(), command, null);
+    assertFalse(
+        bulkhead.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), command));
+  }
+}
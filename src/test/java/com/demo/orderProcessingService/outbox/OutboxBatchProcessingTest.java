@@ -0,0 +1,72 @@
+package com.demo.orderProcessingService.outbox;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class OutboxBatchProcessingTest {
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Autowired OutboxService outboxService;
+
+  @Test
+  public void process_batch_updates_orders_and_isolates_bad_events() {
+    orderRepository.save(
+        OrderEntity.builder()
+            .id("batch-order-ok")
+            .tenantId("tenantA")
+            .amount(500.0)
+            .quantity(1)
+            .status(OrderEntity.OrderStatus.PENDING)
+            .build());
+    orderRepository.save(
+        OrderEntity.builder()
+            .id("batch-order-invalid")
+            .tenantId("tenantB")
+            .amount(500.0)
+            .quantity(1)
+            .status(OrderEntity.OrderStatus.PENDING)
+            .build());
+
+    OutboxEvent ok = saveInProgress("{\"orderId\":\"batch-order-ok\"}");
+    OutboxEvent invalid = saveInProgress("{\"orderId\":\"batch-order-invalid\"}");
+    OutboxEvent broken = saveInProgress("{}");
+
+    outboxService.processBatch(List.of(ok.getId(), invalid.getId(), broken.getId()));
+
+    assertEquals(
+        OrderEntity.OrderStatus.PROCESSED,
+        orderRepository.findById("batch-order-ok").orElseThrow().getStatus());
+    assertEquals(
+        OrderEntity.OrderStatus.FAILED,
+        orderRepository.findById("batch-order-invalid").orElseThrow().getStatus());
+    assertEquals(
+        OutboxEvent.Status.PROCESSED,
+        outboxRepository.findById(ok.getId()).orElseThrow().getStatus());
+    assertEquals(
+        OutboxEvent.Status.PROCESSED,
+        outboxRepository.findById(invalid.getId()).orElseThrow().getStatus());
+    assertEquals(
+        OutboxEvent.Status.FAILED,
+        outboxRepository.findById(broken.getId()).orElseThrow().getStatus());
+  }
+
+  private OutboxEvent saveInProgress(String payload) {
+    return outboxRepository.save(
+        event(OutboxEvent.Status.IN_PROGRESS)
+            .payload(payload)
+            .processingStartedAt(Instant.now())
+            .build());
+  }
+}
@@ -0,0 +1,43 @@
+package com.demo.orderProcessingService.outbox;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class OutboxClaimBatchTest {
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OutboxService outboxService;
+
+  @Test
+  public void claim_batch_takes_oldest_pending_events_up_to_limit() {
+    Instant base = Instant.parse("2000-01-01T00:00:00Z");
+    List<OutboxEvent> events = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      events.add(
+          outboxRepository.save(
+              event(OutboxEvent.Status.PENDING, base.plusSeconds(i))
+                  .payload("{\"orderId\":\"claim-order-" + i + "\"}")
+                  .build()));
+    }
+
+    List<Long> claimed = outboxService.claimBatch(2);
+    assertEquals(List.of(events.get(0).getId(), events.get(1).getId()), claimed);
+
+    OutboxEvent first = outboxRepository.findById(events.get(0).getId()).orElseThrow();
+    assertEquals(OutboxEvent.Status.IN_PROGRESS, first.getStatus());
+    assertNotNull(first.getProcessingStartedAt());
+    OutboxEvent third = outboxRepository.findById(events.get(2).getId()).orElseThrow();
+    assertEquals(OutboxEvent.Status.PENDING, third.getStatus());
+
+    outboxRepository.deleteAll(events);
+  }
+}
@@ -0,0 +1,46 @@
+package com.demo.orderProcessingService.outbox;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class OutboxColumnBackfillTest {
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Autowired OutboxColumnBackfill columnBackfill;
+
+  @Test
+  public void backfill_fills_aggregate_and_tenant_from_legacy_payload() {
+    orderRepository.save(
+        OrderEntity.builder()
+            .id("legacy-order")
+            .tenantId("tenantB")
+            .amount(10.0)
+            .quantity(1)
+            .status(OrderEntity.OrderStatus.PENDING)
+            .build());
+    OutboxEvent legacy =
+        outboxRepository.save(
+            event(OutboxEvent.Status.IN_PROGRESS)
+                .payload("{\"orderId\":\"legacy-order\"}")
+                .processingStartedAt(Instant.now())
+                .build());
+
+    columnBackfill.run();
+
+    OutboxEvent migrated = outboxRepository.findById(legacy.getId()).orElseThrow();
+    assertEquals("legacy-order", migrated.getAggregateId());
+    assertEquals("tenantB", migrated.getTenantId());
+    outboxRepository.delete(migrated);
+  }
+}
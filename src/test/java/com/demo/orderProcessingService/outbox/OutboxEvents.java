@@ -0,0 +1,23 @@
+package com.demo.orderProcessingService.outbox;
+
+import java.time.Instant;
+
+/** Outbox rows for tests: ORDER_CREATED events that callers finish with ids, tenant and payload. */
+public final class OutboxEvents {
+
+  private OutboxEvents() {}
+
+  /** An event in {@code status}, created and last updated now. */
+  public static OutboxEvent.OutboxEventBuilder event(OutboxEvent.Status status) {
+    return event(status, Instant.now());
+  }
+
+  /** An event in {@code status}, created and last updated at {@code at}. */
+  public static OutboxEvent.OutboxEventBuilder event(OutboxEvent.Status status, Instant at) {
+    return OutboxEvent.builder()
+        .eventType("ORDER_CREATED")
+        .status(status)
+        .createdAt(at)
+        .updatedAt(at);
+  }
+}
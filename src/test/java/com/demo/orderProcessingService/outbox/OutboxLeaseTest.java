@@ -0,0 +1,80 @@
+package com.demo.orderProcessingService.outbox;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class OutboxLeaseTest {
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Autowired OutboxService outboxService;
+
+  @Autowired OutboxLeaseSweeper leaseSweeper;
+
+  @Autowired OutboxLeases leases;
+
+  @Test
+  public void claims_carry_owner_and_lease_and_expired_leases_are_swept() {
+    OutboxEvent e =
+        outboxRepository.save(
+            event(OutboxEvent.Status.PENDING)
+                .aggregateId("lease-order")
+                .tenantId("tenantA")
+                .build());
+    assertTrue(outboxService.tryClaimEvent(e.getId()));
+
+    OutboxEvent claimed = outboxRepository.findById(e.getId()).orElseThrow();
+    assertEquals(leases.nodeId(), claimed.getClaimedBy());
+    assertTrue(claimed.getLeaseExpiresAt().isAfter(Instant.now()));
+
+    claimed.setLeaseExpiresAt(Instant.now().minusSeconds(1));
+    outboxRepository.save(claimed);
+    leaseSweeper.sweep();
+
+    OutboxEvent swept = outboxRepository.findById(e.getId()).orElseThrow();
+    assertEquals(OutboxEvent.Status.PENDING, swept.getStatus());
+    assertNull(swept.getClaimedBy());
+    outboxRepository.delete(swept);
+  }
+
+  @Test
+  public void events_claimed_by_another_node_are_not_processed() {
+    orderRepository.save(
+        OrderEntity.builder()
+            .id("foreign-order")
+            .tenantId("tenantA")
+            .amount(500.0)
+            .quantity(1)
+            .status(OrderEntity.OrderStatus.PENDING)
+            .build());
+    OutboxEvent e =
+        outboxRepository.save(
+            event(OutboxEvent.Status.IN_PROGRESS)
+                .aggregateId("foreign-order")
+                .processingStartedAt(Instant.now())
+                .claimedBy("some-other-node")
+                .leaseExpiresAt(Instant.now().plusSeconds(60))
+                .build());
+
+    outboxService.processBatch(List.of(e.getId()));
+
+    assertEquals(
+        OrderEntity.OrderStatus.PENDING,
+        orderRepository.findById("foreign-order").orElseThrow().getStatus());
+    OutboxEvent untouched = outboxRepository.findById(e.getId()).orElseThrow();
+    assertEquals(OutboxEvent.Status.IN_PROGRESS, untouched.getStatus());
+    assertEquals("some-other-node", untouched.getClaimedBy());
+    outboxRepository.delete(untouched);
+  }
+}
@@ -0,0 +1,58 @@
+package com.demo.orderProcessingService.outbox;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class OutboxMetricsTest {
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Autowired OutboxService outboxService;
+
+  @Autowired OutboxBacklogMonitor backlogMonitor;
+
+  @Autowired MeterRegistry meterRegistry;
+
+  @Test
+  public void metrics_track_backlog_and_outcomes_per_tenant() {
+    String tenant = "metricsTenant";
+    orderRepository.save(
+        OrderEntity.builder()
+            .id("metrics-order")
+            .tenantId(tenant)
+            .amount(10.0)
+            .quantity(1)
+            .status(OrderEntity.OrderStatus.PENDING)
+            .build());
+    OutboxEvent e =
+        outboxRepository.save(
+            event(OutboxEvent.Status.PENDING, Instant.now().minusSeconds(30))
+                .aggregateId("metrics-order")
+                .tenantId(tenant)
+                .build());
+
+    OutboxBacklogMonitor.TenantBacklog backlog = backlogMonitor.refresh().get(tenant);
+    assertEquals(1, backlog.pending());
+    assertTrue(backlog.oldestPendingAge(Instant.now()).getSeconds() >= 30);
+
+    assertTrue(outboxService.tryClaimEvent(e.getId()));
+    assertFalse(outboxService.tryClaimEvent(e.getId()), "second claim must lose");
+    outboxService.processEvent(e.getId());
+
+    assertEquals(1.0, meterRegistry.counter("outbox.events.processed", "tenant", tenant).count());
+    assertTrue(meterRegistry.counter("outbox.events.claim.lost").count() >= 1);
+    assertEquals(1, meterRegistry.timer("outbox.validation", "tenant", tenant).count());
+    assertNull(backlogMonitor.refresh().get(tenant));
+  }
+}
@@ -0,0 +1,76 @@
+package com.demo.orderProcessingService.outbox;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+public class OutboxPublishClaimTest {
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired TransactionTemplate tx;
+
+  @Test
+  public void each_unpublished_event_is_claimed_by_one_node_until_released_or_expired() {
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      ids.add(
+          outboxRepository
+              .save(event(OutboxEvent.Status.PROCESSED).aggregateId("pub-" + i).build())
+              .getId());
+    }
+    // start just below them, past anything other tests left behind
+    long after = ids.get(0) - 1;
+    Instant now = Instant.now();
+    Instant lease = now.plusSeconds(60);
+
+    assertEquals(ids, claim(after, "node-a", now, lease));
+    assertEquals(List.of(), claim(after, "node-b", now, lease), "node-a holds every event");
+
+    // a failed send gives them up, and a published event is never claimed again
+    outboxRepository.releasePublishClaims(ids.subList(0, 2), "node-a");
+    outboxRepository.markPublished(ids.subList(2, 3), now);
+    assertEquals(ids.subList(0, 2), claim(after, "node-b", now, lease.plusSeconds(60)));
+
+    // node-a died: its lease on the last one runs out, and node-b's are still current
+    Instant expired = lease.plusSeconds(1);
+    assertEquals(ids.subList(3, 4), claim(after, "node-c", expired, expired.plusSeconds(60)));
+
+    outboxRepository.deleteAllById(ids);
+  }
+
+  @Test
+  public void events_processed_before_the_cutoff_are_skipped() {
+    Instant cutoff = Instant.now();
+    Long old =
+        outboxRepository
+            .save(event(OutboxEvent.Status.PROCESSED, cutoff.minusSeconds(3600)).build())
+            .getId();
+    Long recent =
+        outboxRepository
+            .save(event(OutboxEvent.Status.PROCESSED, cutoff.plusSeconds(1)).build())
+            .getId();
+
+    while (outboxRepository.skipUnpublished(cutoff, 100, Instant.now()) == 100) {}
+
+    assertNotNull(outboxRepository.findById(old).orElseThrow().getPublishedAt());
+    assertNull(outboxRepository.findById(recent).orElseThrow().getPublishedAt());
+    outboxRepository.deleteAllById(List.of(old, recent));
+  }
+
+  private List<Long> claim(long after, String owner, Instant now, Instant lease) {
+    return tx.execute(
+        status ->
+            outboxRepository.claimUnpublished(after, 100, owner, now, lease).stream()
+                .map(OutboxMessage::id)
+                .toList());
+  }
+}
@@ -0,0 +1,105 @@
+package com.demo.orderProcessingService.outbox;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.commands.CreateOrderCommand;
+import com.demo.orderProcessingService.commands.OrderCommandHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.FileSystemUtils;
+
+@SpringBootTest(
+    properties = {
+      "outbox.publisher.enabled=true",
+      "outbox.publisher.batch-size=2",
+      "outbox.publisher.linger-ms=0",
+      "outbox.publisher.poll-interval-ms=20",
+      "outbox.publisher.file-log.directory=" + OutboxPublisherTest.LOG_DIR,
+      "outbox.publisher.file-log.segment-bytes=600",
+      "outbox.retention.max-age=0s"
+    })
+public class OutboxPublisherTest {
+  static final String LOG_DIR = "target/outbox-publisher-test-log";
+
+  @Autowired OrderCommandHandler commandHandler;
+
+  @Autowired OutboxService outboxService;
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OutboxRetentionService retentionService;
+
+  @Autowired OutboxPublisherStage publisherStage;
+
+  @Autowired ObjectMapper objectMapper;
+
+  @BeforeAll
+  static void cleanLog() throws Exception {
+    FileSystemUtils.deleteRecursively(Path.of(LOG_DIR));
+  }
+
+  @Test
+  public void processed_events_are_appended_to_the_log_and_only_then_archived() throws Exception {
+    String tenant = "publishTenant";
+    List<CreateOrderCommand> cmds = new ArrayList<>();
+    for (int i = 0; i < 5; i++) cmds.add(new CreateOrderCommand(tenant, 10.0 + i, 1));
+    commandHandler.handleBatch(cmds);
+    List<Long> claimed = outboxService.claimForTenants(Map.of(tenant, 10)).get(tenant);
+    assertEquals(5, claimed.size());
+    outboxService.processBatch(claimed);
+
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!allPublished(claimed) && System.currentTimeMillis() < deadline) Thread.sleep(20);
+    assertTrue(allPublished(claimed), "every processed event should be acknowledged");
+
+    List<Path> segments;
+    try (Stream<Path> files = Files.list(Path.of(LOG_DIR))) {
+      segments = files.sorted().toList();
+    }
+    assertTrue(segments.size() > 1, "small segments should have rolled");
+    assertEquals("00000000000000000000.log", segments.get(0).getFileName().toString());
+    List<JsonNode> entries = new ArrayList<>();
+    for (Path segment : segments) {
+      for (String line : Files.readAllLines(segment)) entries.add(objectMapper.readTree(line));
+    }
+    Set<Long> logged = new HashSet<>();
+    for (int i = 0; i < entries.size(); i++) {
+      assertEquals(i, entries.get(i).get("offset").asLong());
+      logged.add(entries.get(i).get("event").get("id").asLong());
+    }
+    assertEquals(new HashSet<>(claimed), logged);
+
+    // nothing publishes from here on, so a new event stays unpublished and is kept
+    publisherStage.stop();
+    Long unpublished =
+        outboxRepository
+            .save(
+                event(OutboxEvent.Status.PROCESSED, Instant.now().minusSeconds(60))
+                    .aggregateId("unpublished")
+                    .tenantId(tenant)
+                    .build())
+            .getId();
+
+    assertEquals(5, retentionService.archiveExpired());
+    assertTrue(outboxRepository.existsById(unpublished));
+    for (Long id : claimed) assertFalse(outboxRepository.existsById(id));
+  }
+
+  private boolean allPublished(List<Long> ids) {
+    return outboxRepository.findAllById(ids).stream().allMatch(e -> e.getPublishedAt() != null);
+  }
+}
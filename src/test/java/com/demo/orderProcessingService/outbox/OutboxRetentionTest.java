@@ -0,0 +1,42 @@
+package com.demo.orderProcessingService.outbox;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class OutboxRetentionTest {
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OutboxRetentionService retentionService;
+
+  @Test
+  public void retention_moves_old_processed_events_to_archive() {
+    Instant old = Instant.parse("2001-01-01T00:00:00Z");
+    OutboxEvent processed =
+        outboxRepository.save(
+            event(OutboxEvent.Status.PROCESSED, old)
+                .payload("{\"orderId\":\"archived-order\"}")
+                .build());
+    OutboxEvent pending =
+        outboxRepository.save(
+            event(OutboxEvent.Status.PENDING, old)
+                .payload("{\"orderId\":\"still-pending\"}")
+                .build());
+
+    assertTrue(retentionService.archiveExpired() >= 1);
+
+    assertFalse(outboxRepository.existsById(processed.getId()));
+    OutboxEventArchive archived = retentionService.findArchived(processed.getId()).orElseThrow();
+    assertEquals(processed.getPayload(), archived.getPayload());
+    assertNotNull(archived.getArchivedAt());
+    assertTrue(outboxRepository.existsById(pending.getId()));
+
+    outboxRepository.delete(pending);
+  }
+}
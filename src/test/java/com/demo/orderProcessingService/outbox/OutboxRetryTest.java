@@ -0,0 +1,123 @@
+package com.demo.orderProcessingService.outbox;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.domain.OrderStatusChangedEvent;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+@SpringBootTest
+@RecordApplicationEvents
+public class OutboxRetryTest {
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Autowired OutboxService outboxService;
+
+  @Autowired ApplicationEvents applicationEvents;
+
+  @Test
+  public void failed_attempts_back_off_then_dead_letter_and_can_be_requeued() {
+    String tenant = "retryTenant";
+    orderRepository.save(pendingOrder("retry-order", tenant));
+    OutboxEvent e =
+        outboxRepository.save(
+            event(OutboxEvent.Status.PENDING).aggregateId("retry-order").tenantId(tenant).build());
+
+    for (int attempt = 1; attempt < 5; attempt++) {
+      assertTrue(outboxService.tryClaimEvent(e.getId()));
+      outboxService.recordFailure(List.of(e.getId()), new IllegalStateException("boom"));
+
+      OutboxEvent retried = outboxRepository.findById(e.getId()).orElseThrow();
+      assertEquals(OutboxEvent.Status.PENDING, retried.getStatus());
+      assertEquals(attempt, retried.getAttempts());
+      assertTrue(retried.getNextAttemptAt().isAfter(Instant.now()));
+      assertTrue(retried.getLastError().contains("boom"));
+      assertNull(retried.getClaimedBy());
+      // not due yet, so a claim passes it over
+      assertTrue(outboxService.claimForTenants(Map.of(tenant, 10)).get(tenant).isEmpty());
+      assertFalse(outboxService.tryClaimEvent(e.getId()));
+
+      retried.setNextAttemptAt(Instant.now().minusSeconds(1));
+      outboxRepository.save(retried);
+      assertEquals(
+          OrderEntity.OrderStatus.PENDING,
+          orderRepository.findById("retry-order").orElseThrow().getStatus());
+    }
+
+    assertTrue(outboxService.tryClaimEvent(e.getId()));
+    outboxService.recordFailure(List.of(e.getId()), new IllegalStateException("boom"));
+    assertEquals(
+        OutboxEvent.Status.DEAD_LETTER,
+        outboxRepository.findById(e.getId()).orElseThrow().getStatus());
+    // the order will never be validated now, so it fails and listeners are told
+    assertEquals(
+        OrderEntity.OrderStatus.FAILED,
+        orderRepository.findById("retry-order").orElseThrow().getStatus());
+    assertEquals(1, failures("retry-order"));
+    assertEquals(
+        List.of(e.getId()),
+        outboxService.findDeadLetters(tenant, 10).stream().map(OutboxEvent::getId).toList());
+
+    assertEquals(List.of(e.getId()), outboxService.requeueDeadLetters(null, tenant, 10));
+    OutboxEvent requeued = outboxRepository.findById(e.getId()).orElseThrow();
+    assertEquals(OutboxEvent.Status.PENDING, requeued.getStatus());
+    assertEquals(0, requeued.getAttempts());
+    assertFalse(requeued.getNextAttemptAt().isAfter(Instant.now()));
+    outboxRepository.delete(requeued);
+  }
+
+  @Test
+  public void an_event_out_of_attempts_whose_lease_expires_is_dead_lettered_and_fails_its_order() {
+    orderRepository.save(pendingOrder("expired-order", "retryTenant"));
+    OutboxEvent e =
+        outboxRepository.save(
+            event(OutboxEvent.Status.IN_PROGRESS)
+                .aggregateId("expired-order")
+                .tenantId("retryTenant")
+                .attempts(5)
+                .claimedBy("gone-node")
+                .processingStartedAt(Instant.now().minusSeconds(120))
+                .leaseExpiresAt(Instant.now().minusSeconds(1))
+                .build());
+
+    outboxService.releaseExpiredLeases();
+
+    OutboxEvent dead = outboxRepository.findById(e.getId()).orElseThrow();
+    assertEquals(OutboxEvent.Status.DEAD_LETTER, dead.getStatus());
+    assertEquals("lease expired", dead.getLastError());
+    assertNull(dead.getClaimedBy());
+    assertEquals(
+        OrderEntity.OrderStatus.FAILED,
+        orderRepository.findById("expired-order").orElseThrow().getStatus());
+    assertEquals(1, failures("expired-order"));
+    outboxRepository.delete(dead);
+  }
+
+  private long failures(String orderId) {
+    return applicationEvents.stream(OrderStatusChangedEvent.class)
+        .filter(c -> c.orderId().equals(orderId) && c.to() == OrderEntity.OrderStatus.FAILED)
+        .count();
+  }
+
+  private static OrderEntity pendingOrder(String id, String tenantId) {
+    return OrderEntity.builder()
+        .id(id)
+        .tenantId(tenantId)
+        .amount(10.0)
+        .quantity(1)
+        .status(OrderEntity.OrderStatus.PENDING)
+        .build();
+  }
+}
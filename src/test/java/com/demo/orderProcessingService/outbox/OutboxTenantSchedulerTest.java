@@ -0,0 +1,50 @@
+package com.demo.orderProcessingService.outbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+public class OutboxTenantSchedulerTest {
+
+  private static OutboxTenantScheduler scheduler(MockEnvironment env) {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    OutboxBacklogMonitor monitor =
+        new OutboxBacklogMonitor(null, new OutboxMetrics(registry, 100), registry);
+    return new OutboxTenantScheduler(monitor, env, true, 1, 0);
+  }
+
+  @Test
+  public void batches_are_shared_by_weight_so_small_tenants_are_not_starved() {
+    OutboxTenantScheduler scheduler =
+        scheduler(new MockEnvironment().withProperty("outbox.scheduling.weights.tenantA", "3"));
+    scheduler.onEventsEnqueued(new OutboxEventsEnqueued("tenantA", 500_000));
+    scheduler.onEventsEnqueued(new OutboxEventsEnqueued("tenantB", 5));
+
+    assertEquals(Map.of("tenantA", 6, "tenantB", 2), scheduler.plan(8, t -> 0));
+  }
+
+  @Test
+  public void spare_capacity_goes_to_tenants_that_can_use_it() {
+    OutboxTenantScheduler scheduler =
+        scheduler(
+            new MockEnvironment().withProperty("outbox.scheduling.max-in-flight.tenantA", "10"));
+    scheduler.onEventsEnqueued(new OutboxEventsEnqueued("tenantA", 1000));
+    scheduler.onEventsEnqueued(new OutboxEventsEnqueued("tenantB", 3));
+
+    // tenantB only has 3 pending, so tenantA takes the rest of the batch
+    assertEquals(Map.of("tenantA", 7, "tenantB", 3), scheduler.plan(10, t -> 0));
+
+    // tenantA at its max-in-flight limit: nothing for it, tenantB still runs
+    Map<String, Integer> plan = scheduler.plan(10, t -> "tenantA".equals(t) ? 10 : 0);
+    assertEquals(Map.of("tenantB", 3), plan);
+
+    // a short claim means the tenant ran dry
+    scheduler.claimed(plan, Map.of("tenantB", List.of(1L)));
+    assertTrue(scheduler.plan(10, t -> "tenantA".equals(t) ? 10 : 0).isEmpty());
+    assertTrue(scheduler.hasPendingWork());
+  }
+}
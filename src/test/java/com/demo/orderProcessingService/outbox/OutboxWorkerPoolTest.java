@@ -0,0 +1,133 @@
+package com.demo.orderProcessingService.outbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class OutboxWorkerPoolTest {
+
+  private final RecordingService service = new RecordingService();
+  private OutboxWorkerPool pool;
+
+  @AfterEach
+  void stopPool() {
+    service.gate.countDown();
+    if (pool != null) pool.stop();
+  }
+
+  @Test
+  public void partitions_run_in_parallel_up_to_the_concurrency_limit() throws Exception {
+    pool = start(4, 2, 1, 10);
+    // one order per partition, so four chunks could run at once
+    pool.dispatch(List.of(0L, 1L, 2L, 3L), routes(0L, 1L, 2L, 3L));
+
+    assertTrue(service.started.tryAcquire(2, 5, TimeUnit.SECONDS));
+    assertFalse(service.started.tryAcquire(200, TimeUnit.MILLISECONDS), "only two may run");
+    service.gate.countDown();
+    assertTrue(service.started.tryAcquire(2, 5, TimeUnit.SECONDS));
+    assertEquals(2, service.maxRunning.get());
+  }
+
+  @Test
+  public void free_capacity_is_what_dispatch_accepts_and_comes_back_when_chunks_finish()
+      throws Exception {
+    pool = start(2, 1, 1, 3);
+    assertEquals(6, pool.freeCapacity());
+
+    List<Long> ids = List.of(0L, 1L, 2L, 3L, 4L);
+    assertEquals(List.of(), pool.dispatch(ids, routes(ids.toArray(Long[]::new))));
+    assertEquals(1, pool.freeCapacity());
+    assertEquals(5, pool.inFlight("tenantA"));
+
+    // more than the free capacity: the chunk that does not fit comes back to the caller
+    assertEquals(List.of(5L, 7L), pool.dispatch(List.of(5L, 6L, 7L), routes(5L, 6L, 7L)));
+    assertEquals(0, pool.freeCapacity());
+
+    service.gate.countDown();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (pool.freeCapacity() < 6 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+    assertEquals(6, pool.freeCapacity());
+    assertEquals(0, pool.inFlight("tenantA"));
+  }
+
+  @Test
+  public void stop_hands_back_chunks_that_never_started() throws Exception {
+    pool = start(1, 1, 4, 10);
+    pool.dispatch(List.of(1L), routes(1L));
+    assertTrue(service.started.tryAcquire(5, TimeUnit.SECONDS));
+    pool.dispatch(List.of(2L), routes(2L));
+    pool.dispatch(List.of(3L), routes(3L));
+
+    Thread stopper = new Thread(pool::stop);
+    stopper.start();
+    Thread.sleep(100);
+    service.gate.countDown();
+    stopper.join(5000);
+
+    assertEquals(List.of(2L, 3L), service.released);
+    assertEquals(List.of(List.of(1L)), service.processed);
+    assertEquals(0, pool.freeCapacity());
+    assertTrue(pool.dispatch(List.of(4L), routes(4L)).contains(4L));
+  }
+
+  private OutboxWorkerPool start(int partitions, int concurrency, int queueDepth, int batchSize) {
+    OutboxWorkerPool p =
+        new OutboxWorkerPool(
+            service, partitions, concurrency, queueDepth, batchSize, false, true, 5000);
+    p.start();
+    return p;
+  }
+
+  // order id "n" hashes to '0' + n, so event n lands on partition n % partitions
+  private static Map<Long, OutboxEventRoute> routes(Long... ids) {
+    Map<Long, OutboxEventRoute> routes = new HashMap<>();
+    for (Long id : ids) {
+      routes.put(id, new OutboxEventRoute(String.valueOf((char) ('0' + id)), "tenantA"));
+    }
+    return routes;
+  }
+
+  /** Blocks every batch on {@link #gate} and records what the pool asked of it. */
+  private static final class RecordingService extends OutboxService {
+    final CountDownLatch gate = new CountDownLatch(1);
+    final Semaphore started = new Semaphore(0);
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final List<List<Long>> processed = Collections.synchronizedList(new ArrayList<>());
+    final List<Long> released = Collections.synchronizedList(new ArrayList<>());
+
+    RecordingService() {
+      super(null, null, null, null, null, null, null, null);
+    }
+
+    @Override
+    public void processBatch(List<Long> eventIds) {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      started.release();
+      try {
+        gate.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        running.decrementAndGet();
+      }
+      processed.add(eventIds);
+    }
+
+    @Override
+    public int releaseClaims(List<Long> eventIds) {
+      released.addAll(eventIds);
+      return eventIds.size();
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.demo.orderProcessingService.outbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+public class OutboxWorkerTest {
+
+  private final PendingEvents service = new PendingEvents();
+  private final FixedCapacityPool pool = new FixedCapacityPool(service);
+  private final OutboxWorker worker = new OutboxWorker(service, pool, fifo(), 10, 5, 40);
+
+  @Test
+  public void idle_polls_back_off_to_the_maximum_and_full_batches_poll_again_at_once() {
+    long delay = 5;
+    for (long expected : new long[] {10, 20, 40, 40}) {
+      delay = worker.nextDelay(delay, worker.pollOnce());
+      assertEquals(expected, delay);
+    }
+
+    service.pending = 15;
+    assertEquals(0, worker.nextDelay(delay, worker.pollOnce()), "full batch: more is waiting");
+    assertEquals(5, worker.nextDelay(delay, worker.pollOnce()), "partial batch: minimum");
+    assertEquals(10, worker.nextDelay(5, worker.pollOnce()), "drained: back off again");
+  }
+
+  @Test
+  public void claims_are_sized_to_the_room_left_in_the_pool() {
+    service.pending = 100;
+    pool.free = 0;
+    OutboxWorker.Polled full = worker.pollOnce();
+    assertEquals(-1, full.rejected());
+    assertEquals(List.of(), service.limits, "nothing is claimed into a full pool");
+    assertEquals(5, worker.nextDelay(40, full));
+
+    pool.free = 3;
+    assertEquals(new OutboxWorker.Polled(3, 0), worker.pollOnce());
+    assertEquals(List.of(3), service.limits);
+  }
+
+  private static OutboxTenantScheduler fifo() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    OutboxBacklogMonitor monitor =
+        new OutboxBacklogMonitor(null, new OutboxMetrics(registry, 100), registry);
+    return new OutboxTenantScheduler(monitor, new MockEnvironment(), false, 1, 0);
+  }
+
+  /** Hands out up to {@link #pending} ids and records each claim's limit. */
+  private static final class PendingEvents extends OutboxService {
+    int pending;
+    long nextId;
+    final List<Integer> limits = new ArrayList<>();
+
+    PendingEvents() {
+      super(null, null, null, null, null, null, null, null);
+    }
+
+    @Override
+    public List<Long> claimBatch(int limit) {
+      limits.add(limit);
+      List<Long> ids = new ArrayList<>();
+      while (ids.size() < limit && pending > 0) {
+        ids.add(nextId++);
+        pending--;
+      }
+      return ids;
+    }
+
+    @Override
+    public Map<Long, OutboxEventRoute> routesFor(List<Long> eventIds) {
+      return Map.of();
+    }
+  }
+
+  /** Accepts everything it is given and reports {@link #free} as its room; never runs anything. */
+  private static final class FixedCapacityPool extends OutboxWorkerPool {
+    int free = 100;
+
+    FixedCapacityPool(OutboxService service) {
+      super(service, 1, 1, 1, 10, false, true, 0);
+    }
+
+    @Override
+    public int freeCapacity() {
+      return free;
+    }
+
+    @Override
+    public List<Long> dispatch(List<Long> eventIds, Map<Long, OutboxEventRoute> routes) {
+      return List.of();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.demo.orderProcessingService.queries;
+
+import static com.demo.orderProcessingService.outbox.OutboxEvents.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.outbox.OutboxEvent;
+import com.demo.orderProcessingService.outbox.OutboxRepository;
+import com.demo.orderProcessingService.outbox.OutboxService;
+import com.demo.orderProcessingService.repository.OrderRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class OrderQueryHandlerTest {
+
+  @Autowired OrderQueryHandler queryHandler;
+
+  @Autowired OrderCache orderCache;
+
+  @Autowired OrderRepository orderRepository;
+
+  @Autowired OutboxRepository outboxRepository;
+
+  @Autowired OutboxService outboxService;
+
+  @Test
+  public void cached_order_is_refreshed_after_processing_commits() {
+    String id = "cached-order-1";
+    orderRepository.save(
+        OrderEntity.builder()
+            .id(id)
+            .tenantId("tenantA")
+            .amount(200.0)
+            .quantity(1)
+            .status(OrderEntity.OrderStatus.PENDING)
+            .build());
+
+    long hitsBefore = orderCache.stats().hitCount();
+    assertEquals(OrderEntity.OrderStatus.PENDING, queryHandler.getById(id).orElseThrow().status());
+    assertEquals(OrderEntity.OrderStatus.PENDING, queryHandler.getById(id).orElseThrow().status());
+    assertEquals(hitsBefore + 1, orderCache.stats().hitCount());
+
+    OutboxEvent e =
+        outboxRepository.save(
+            event(OutboxEvent.Status.IN_PROGRESS).payload("{\"orderId\":\"" + id + "\"}").build());
+    outboxService.processEvent(e.getId());
+
+    assertEquals(
+        OrderEntity.OrderStatus.PROCESSED, queryHandler.getById(id).orElseThrow().status());
+  }
+
+  @Test
+  public void missing_orders_are_not_cached() {
+    assertTrue(queryHandler.getById("not-created-yet").isEmpty());
+    orderRepository.save(
+        OrderEntity.builder()
+            .id("not-created-yet")
+            .tenantId("tenantB")
+            .amount(10.0)
+            .quantity(1)
+            .status(OrderEntity.OrderStatus.PENDING)
+            .build());
+    assertTrue(queryHandler.getById("not-created-yet").isPresent());
+  }
+
+  @Test
+  public void listing_walks_pages_by_cursor_within_tenant_status_and_range() {
+    Instant base = Instant.parse("2001-01-01T00:00:00Z");
+    // two orders share a timestamp, so the id breaks the tie
+    saveOrder("list-0", OrderEntity.OrderStatus.FAILED, base.minusSeconds(60));
+    saveOrder("list-1", OrderEntity.OrderStatus.FAILED, base);
+    saveOrder("list-2", OrderEntity.OrderStatus.FAILED, base.plusSeconds(1));
+    saveOrder("list-3", OrderEntity.OrderStatus.FAILED, base.plusSeconds(1));
+    saveOrder("list-4", OrderEntity.OrderStatus.PROCESSED, base.plusSeconds(2));
+    saveOrder("list-5", OrderEntity.OrderStatus.FAILED, base.plusSeconds(3));
+    saveOrder("list-6", OrderEntity.OrderStatus.FAILED, base.plusSeconds(10));
+
+    List<String> seen = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      OrderPage page =
+          queryHandler.list(
+              "listTenant", OrderEntity.OrderStatus.FAILED, base, base.plusSeconds(10), 2, cursor);
+      page.orders().forEach(o -> seen.add(o.id()));
+      cursor = page.nextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertEquals(List.of("list-1", "list-2", "list-3", "list-5"), seen);
+    assertEquals(2, pages);
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            queryHandler.list(
+                "listTenant", OrderEntity.OrderStatus.FAILED, base, base, 2, "not-a-cursor"));
+  }
+
+  private void saveOrder(String id, OrderEntity.OrderStatus status, Instant createdAt) {
+    orderRepository.save(
+        OrderEntity.builder()
+            .id(id)
+            .tenantId("listTenant")
+            .amount(10.0)
+            .quantity(1)
+            .status(status)
+            .createdAt(createdAt)
+            .updatedAt(createdAt)
+            .build());
+  }
+}
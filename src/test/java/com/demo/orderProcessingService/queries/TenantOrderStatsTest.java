@@ -0,0 +1,101 @@
+package com.demo.orderProcessingService.queries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.commands.CreateOrderCommand;
+import com.demo.orderProcessingService.commands.OrderCommandHandler;
+import com.demo.orderProcessingService.domain.OrderEntity;
+import com.demo.orderProcessingService.domain.OrdersCreatedEvent;
+import com.demo.orderProcessingService.outbox.OutboxService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class TenantOrderStatsTest {
+
+  @Autowired TenantOrderStats tenantStats;
+
+  @Autowired OrderCommandHandler commandHandler;
+
+  @Autowired OutboxService outboxService;
+
+  @Test
+  public void totals_follow_creates_and_status_changes_and_survive_checkpoint_and_rebuild() {
+    // no rules for this tenant, so every order ends up FAILED
+    String tenant = "statsTenant";
+    commandHandler.handleBatch(
+        List.of(
+            new CreateOrderCommand(tenant, 10.0, 1),
+            new CreateOrderCommand(tenant, 20.0, 1),
+            new CreateOrderCommand(tenant, 30.0, 1)));
+
+    assertTotals(tenant, OrderEntity.OrderStatus.PENDING, 3, 60.0);
+
+    List<Long> claimed = outboxService.claimForTenants(Map.of(tenant, 10)).get(tenant);
+    assertEquals(3, claimed.size());
+    outboxService.processBatch(claimed);
+
+    assertTotals(tenant, OrderEntity.OrderStatus.PENDING, 0, 0.0);
+    assertTotals(tenant, OrderEntity.OrderStatus.FAILED, 3, 60.0);
+
+    tenantStats.checkpoint();
+    assertTotals(tenant, OrderEntity.OrderStatus.FAILED, 3, 60.0);
+
+    tenantStats.rebuild();
+    assertTotals(tenant, OrderEntity.OrderStatus.PENDING, 0, 0.0);
+    assertTotals(tenant, OrderEntity.OrderStatus.FAILED, 3, 60.0);
+  }
+
+  @Test
+  public void concurrent_writers_are_counted_once_across_checkpoints() throws Exception {
+    String tenant = "statsConcurrentTenant";
+    int writers = 8;
+    int perWriter = 2000;
+    AtomicBoolean writing = new AtomicBoolean(true);
+    Thread checkpoints =
+        new Thread(
+            () -> {
+              while (writing.get()) tenantStats.checkpoint();
+            });
+    checkpoints.start();
+    ExecutorService pool = Executors.newFixedThreadPool(writers);
+    try {
+      List<Future<?>> done = new ArrayList<>();
+      for (int w = 0; w < writers; w++) {
+        done.add(
+            pool.submit(
+                () -> {
+                  for (int i = 0; i < perWriter; i++) {
+                    tenantStats.onCreated(new OrdersCreatedEvent(tenant, 1, 2.0));
+                  }
+                }));
+      }
+      for (Future<?> f : done) f.get();
+    } finally {
+      writing.set(false);
+      checkpoints.join();
+      pool.shutdown();
+    }
+
+    assertTotals(
+        tenant, OrderEntity.OrderStatus.PENDING, writers * perWriter, writers * perWriter * 2.0);
+    tenantStats.checkpoint();
+    assertTotals(
+        tenant, OrderEntity.OrderStatus.PENDING, writers * perWriter, writers * perWriter * 2.0);
+  }
+
+  private void assertTotals(
+      String tenant, OrderEntity.OrderStatus status, long count, double amount) {
+    TenantOrderTotals.Totals totals = tenantStats.get(tenant).orElseThrow().byStatus().get(status);
+    assertEquals(count, totals.count());
+    assertEquals(amount, totals.amount(), 1e-9);
+  }
+}
@@ -0,0 +1,67 @@
+package com.demo.orderProcessingService.validation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demo.orderProcessingService.domain.OrderEntity;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+public class TenantRuleCompilerTest {
+
+  @TempDir Path dir;
+
+  private static OrderEntity order(double amount, int quantity) {
+    return OrderEntity.builder().tenantId("t").amount(amount).quantity(quantity).build();
+  }
+
+  @Test
+  public void and_binds_tighter_than_or() {
+    TenantOrderValidator rule =
+        TenantRuleCompiler.compile("amount > 100 && quantity > 10 || amount >= 5000");
+
+    assertTrue(rule.validate(order(200, 20)));
+    assertFalse(rule.validate(order(200, 5)));
+    assertTrue(rule.validate(order(5000, 1)));
+    assertArrayEquals(
+        new boolean[] {true, false, true},
+        rule.validateBatch(List.of(order(200, 20), order(50, 20), order(6000, 0))));
+  }
+
+  @Test
+  public void invalid_rules_are_rejected() {
+    assertThrows(IllegalArgumentException.class, () -> TenantRuleCompiler.compile(""));
+    assertThrows(IllegalArgumentException.class, () -> TenantRuleCompiler.compile("price > 1"));
+    assertThrows(IllegalArgumentException.class, () -> TenantRuleCompiler.compile("amount => 1"));
+    assertThrows(IllegalArgumentException.class, () -> TenantRuleCompiler.compile("amount > x"));
+    assertThrows(IllegalArgumentException.class, () -> TenantRuleCompiler.compile("amount > 1 ||"));
+  }
+
+  @Test
+  public void registry_reloads_rules_and_keeps_them_when_a_reload_is_invalid() throws Exception {
+    Path file = dir.resolve("rules.properties");
+    Files.writeString(file, "tenantC=amount > 10\n");
+    ValidatorRegistry registry =
+        new ValidatorRegistry(
+            Map.of("tenantA", new TenantAValidator()),
+            new DefaultResourceLoader(),
+            file.toUri().toString());
+
+    assertTrue(registry.get("tenantC").validate(order(20, 1)));
+    assertTrue(registry.get("tenantA").validate(order(150, 1)));
+    assertSame(registry.get("unknown"), registry.get("other"));
+    assertFalse(registry.get("unknown").validate(order(1000, 1000)));
+
+    Files.writeString(file, "tenantC=amount > 50\n");
+    assertEquals(Map.of("tenantC", "amount > 50"), registry.reload());
+    assertFalse(registry.get("tenantC").validate(order(20, 1)));
+
+    Files.writeString(file, "tenantC=amount >\n");
+    assertThrows(IllegalArgumentException.class, registry::reload);
+    assertTrue(registry.get("tenantC").validate(order(60, 1)));
+  }
+}